@@ -0,0 +1,17 @@
+package com.anderb.breskulorm.benchmark;
+
+import com.anderb.breskulorm.annotation.*;
+import lombok.Data;
+
+@Data
+@Entity
+@Cacheable(maxEntries = 10_000)
+@Table("countries")
+public class BenchmarkCountry {
+    @Id(generatedValue = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column("name")
+    private String name;
+
+}
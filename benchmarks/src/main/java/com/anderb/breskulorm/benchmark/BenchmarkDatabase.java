@@ -0,0 +1,62 @@
+package com.anderb.breskulorm.benchmark;
+
+import org.h2.jdbcx.JdbcDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * In-memory H2 database with the tables of {@link BenchmarkPerson} and {@link BenchmarkCountry},
+ * kept alive until {@link #close()}
+ */
+final class BenchmarkDatabase implements AutoCloseable {
+    private final JdbcDataSource dataSource = new JdbcDataSource();
+    private final Connection connection;
+
+    /**
+     * @param persons number of persons to insert with ids from 1, each country row is inserted with id 1
+     */
+    BenchmarkDatabase(String name, int persons) throws SQLException {
+        dataSource.setURL("jdbc:h2:mem:" + name);
+        dataSource.setUser("sa");
+        dataSource.setPassword("sa");
+        connection = dataSource.getConnection();
+        execute("CREATE TABLE persons (id BIGINT PRIMARY KEY, first_name VARCHAR(255), "
+                + "last_name VARCHAR(255), email VARCHAR(255), age INT)");
+        execute("CREATE SEQUENCE orm_sequence START WITH " + (persons + 1));
+        execute("CREATE TABLE countries (id BIGINT AUTO_INCREMENT PRIMARY KEY, name VARCHAR(255))");
+        execute("INSERT INTO persons SELECT x, 'First' || x, 'Last' || x, 'person' || x || '@example.com', "
+                + "20 + MOD(x, 50) FROM SYSTEM_RANGE(1, " + persons + ")");
+        execute("INSERT INTO countries (name) VALUES ('Ukraine')");
+    }
+
+    DataSource getDataSource() {
+        return dataSource;
+    }
+
+    Connection getConnection() {
+        return connection;
+    }
+
+    /**
+     * Delete rows inserted by benchmarks, keeping the first {@code persons} persons and the first country
+     */
+    void reset(int persons) throws SQLException {
+        execute("DELETE FROM persons WHERE id > " + persons);
+        execute("DELETE FROM countries WHERE id > 1");
+    }
+
+    void execute(String sql) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute(sql);
+        }
+    }
+
+    @Override
+    public void close() throws SQLException {
+        execute("SHUTDOWN");
+        connection.close();
+    }
+}
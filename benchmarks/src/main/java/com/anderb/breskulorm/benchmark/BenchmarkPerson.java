@@ -0,0 +1,25 @@
+package com.anderb.breskulorm.benchmark;
+
+import com.anderb.breskulorm.annotation.*;
+import lombok.Data;
+
+@Data
+@Entity
+@Table("persons")
+public class BenchmarkPerson {
+    @Id(generatedValue = GenerationType.SEQUENCE)
+    private Long id;
+
+    @Column("first_name")
+    private String firstName;
+
+    @Column("last_name")
+    private String lastName;
+
+    @Column("email")
+    private String email;
+
+    @Column("age")
+    private Integer age;
+
+}
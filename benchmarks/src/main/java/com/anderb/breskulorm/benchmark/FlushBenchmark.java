@@ -0,0 +1,71 @@
+package com.anderb.breskulorm.benchmark;
+
+import com.anderb.breskulorm.Session;
+import com.anderb.breskulorm.SessionFactory;
+import org.openjdk.jmh.annotations.*;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+/**
+ * {@link Session#flush()} of a session managing {@code entities} persons, either all unchanged or all
+ * changed since the previous flush
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class FlushBenchmark {
+
+    @Param({"100", "1000"})
+    public int entities;
+
+    private BenchmarkDatabase database;
+    private SessionFactory sessionFactory;
+    private Session session;
+    private List<BenchmarkPerson> persons;
+    private boolean renamed;
+
+    @Setup(Level.Trial)
+    public void setUpTrial() throws SQLException {
+        database = new BenchmarkDatabase("flush", entities);
+        sessionFactory = new SessionFactory(database.getDataSource(), BenchmarkPerson.class);
+    }
+
+    @Setup(Level.Iteration)
+    public void setUpIteration() {
+        session = sessionFactory.createSession();
+        List<Long> ids = LongStream.rangeClosed(1, entities).boxed().collect(Collectors.toList());
+        persons = session.findAll(BenchmarkPerson.class, ids);
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDownIteration() {
+        session.close();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDownTrial() throws SQLException {
+        database.close();
+    }
+
+    @Benchmark
+    public void flushClean() {
+        session.flush();
+    }
+
+    @Benchmark
+    public void flushDirty() {
+        renamed = !renamed;
+        String firstName = renamed ? "Renamed" : "Original";
+        for (BenchmarkPerson person : persons) {
+            person.setFirstName(firstName);
+        }
+        session.flush();
+    }
+}
@@ -0,0 +1,66 @@
+package com.anderb.breskulorm.benchmark;
+
+import com.anderb.breskulorm.EntityMetadata;
+import com.anderb.breskulorm.EntityMetadataResolver;
+import com.anderb.breskulorm.accessor.PropertyAccessor;
+import org.openjdk.jmh.annotations.*;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares hydration of a H2 result set row through positional, typed column readers with the
+ * {@code getObject(columnLabel)} and {@link PropertyAccessor} path they replaced.
+ * Both read the same current row of a scrollable result set, so the query cost is excluded.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class HydrationBenchmark {
+
+    private EntityMetadata metadata;
+    private Connection connection;
+    private Statement statement;
+    private ResultSet resultSet;
+
+    @Setup
+    public void setUp() throws SQLException {
+        metadata = new EntityMetadataResolver(BenchmarkPerson.class).getEntityMetadata(BenchmarkPerson.class);
+        connection = DriverManager.getConnection("jdbc:h2:mem:hydration", "sa", "sa");
+        statement = connection.createStatement(ResultSet.TYPE_SCROLL_INSENSITIVE, ResultSet.CONCUR_READ_ONLY);
+        statement.execute("CREATE TABLE persons (id BIGINT PRIMARY KEY, first_name VARCHAR(255), "
+                + "last_name VARCHAR(255), email VARCHAR(255), age INT)");
+        statement.execute("INSERT INTO persons VALUES (1, 'Andrii', 'Bobrov', 'andrii@example.com', 33)");
+        resultSet = statement.executeQuery(metadata.getSelectSql());
+        resultSet.next();
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        resultSet.close();
+        statement.close();
+        connection.close();
+    }
+
+    @Benchmark
+    public Object hydrateByLabel() throws SQLException {
+        Object instance = metadata.getMapper().newInstance();
+        for (Map.Entry<String, PropertyAccessor> entry : metadata.getAccessors().entrySet()) {
+            entry.getValue().set(instance, resultSet.getObject(entry.getKey()));
+        }
+        return instance;
+    }
+
+    @Benchmark
+    public Object hydratePositional() throws SQLException {
+        return metadata.getMapper().hydrate(resultSet);
+    }
+}
@@ -0,0 +1,42 @@
+package com.anderb.breskulorm.benchmark;
+
+import com.anderb.breskulorm.EntityMetadata;
+import com.anderb.breskulorm.EntityMetadataResolver;
+import com.anderb.breskulorm.EntityScanner;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cold start cost of entity metadata, each fork times a single call in a fresh JVM: resolving all listed
+ * entity classes eagerly, scanning their package, and registering nothing up front but the one entity
+ * used first.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(10)
+@State(Scope.Thread)
+public class MetadataStartupBenchmark {
+
+    @Benchmark
+    public EntityMetadataResolver eager() {
+        return new EntityMetadataResolver(BenchmarkPerson.class, BenchmarkCountry.class);
+    }
+
+    @Benchmark
+    public EntityMetadataResolver scanned() {
+        EntityMetadataResolver resolver = new EntityMetadataResolver();
+        List<Class<?>> entityClasses = new EntityScanner(getClass().getClassLoader())
+                .scan(List.of(getClass().getPackageName()));
+        resolver.register(entityClasses);
+        return resolver;
+    }
+
+    @Benchmark
+    public EntityMetadata lazyFirstUse() {
+        return new EntityMetadataResolver().getEntityMetadata(BenchmarkPerson.class);
+    }
+}
@@ -0,0 +1,90 @@
+package com.anderb.breskulorm.benchmark;
+
+import com.anderb.breskulorm.EntityMetadata;
+import com.anderb.breskulorm.EntityMetadataResolver;
+import com.anderb.breskulorm.accessor.PropertyAccessor;
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.reflect.Field;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares snapshotting and hydration through metadata {@link PropertyAccessor}s with the
+ * per-call {@code setAccessible}/{@code Field.get}/{@code Field.set} reflection path they replaced.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PropertyAccessBenchmark {
+
+    private EntityMetadata metadata;
+    private Field[] fields;
+    private Object[] values;
+    private BenchmarkPerson person;
+
+    @Setup
+    public void setUp() throws IllegalAccessException {
+        metadata = new EntityMetadataResolver(BenchmarkPerson.class).getEntityMetadata(BenchmarkPerson.class);
+        fields = metadata.getFields().values().toArray(Field[]::new);
+        person = new BenchmarkPerson();
+        person.setId(1L);
+        person.setFirstName("Andrii");
+        person.setLastName("Bobrov");
+        person.setEmail("andrii@example.com");
+        person.setAge(33);
+        values = new Object[fields.length];
+        for (int i = 0; i < fields.length; i++) {
+            fields[i].setAccessible(true);
+            values[i] = fields[i].get(person);
+        }
+    }
+
+    @Benchmark
+    public Object[] snapshotReflection() {
+        return metadata.getFields().values()
+                .stream()
+                .filter(field -> !field.getName().equals(metadata.getIdColumnName()))
+                .map(field -> {
+                    try {
+                        field.setAccessible(true);
+                        return field.get(person);
+                    } catch (IllegalAccessException e) {
+                        throw new IllegalStateException(e);
+                    }
+                })
+                .toArray();
+    }
+
+    @Benchmark
+    public Object[] snapshotAccessors() {
+        PropertyAccessor[] stateAccessors = metadata.getStateAccessors();
+        Object[] state = new Object[stateAccessors.length];
+        for (int i = 0; i < stateAccessors.length; i++) {
+            state[i] = stateAccessors[i].get(person);
+        }
+        return state;
+    }
+
+    @Benchmark
+    public BenchmarkPerson hydrateReflection() throws IllegalAccessException {
+        BenchmarkPerson instance = new BenchmarkPerson();
+        for (int i = 0; i < fields.length; i++) {
+            fields[i].setAccessible(true);
+            fields[i].set(instance, values[i]);
+        }
+        return instance;
+    }
+
+    @Benchmark
+    public BenchmarkPerson hydrateAccessors() {
+        BenchmarkPerson instance = new BenchmarkPerson();
+        int i = 0;
+        for (PropertyAccessor accessor : metadata.getAccessors().values()) {
+            accessor.set(instance, values[i++]);
+        }
+        return instance;
+    }
+}
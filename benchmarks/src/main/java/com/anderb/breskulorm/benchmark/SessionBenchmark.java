@@ -0,0 +1,149 @@
+package com.anderb.breskulorm.benchmark;
+
+import com.anderb.breskulorm.EntityMetadata;
+import com.anderb.breskulorm.Session;
+import com.anderb.breskulorm.SessionFactory;
+import org.openjdk.jmh.annotations.*;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static com.anderb.breskulorm.query.Operator.EQ;
+
+/**
+ * Single-entity hot paths of {@link Session} against in-memory H2. Each iteration runs in one session,
+ * which is closed and committed at the end of the iteration, inserted rows are then deleted.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SessionBenchmark {
+    private static final int PERSONS = 1000;
+
+    private BenchmarkDatabase database;
+    private SessionFactory sessionFactory;
+    private EntityMetadata personMetadata;
+    private Session session;
+    private BenchmarkPerson person;
+    private Statement statement;
+    private ResultSet resultSet;
+    private long nextId;
+
+    @Setup(Level.Trial)
+    public void setUpTrial() throws SQLException {
+        database = new BenchmarkDatabase("session", PERSONS);
+        sessionFactory = new SessionFactory(database.getDataSource(), BenchmarkPerson.class, BenchmarkCountry.class);
+        personMetadata = sessionFactory.getMetadataResolver().getEntityMetadata(BenchmarkPerson.class);
+        statement = database.getConnection()
+                .createStatement(ResultSet.TYPE_SCROLL_INSENSITIVE, ResultSet.CONCUR_READ_ONLY);
+        resultSet = statement.executeQuery(personMetadata.getFindByIdSql().replace("?", "1"));
+        try (Session warmUp = sessionFactory.createSession()) {
+            person = warmUp.find(BenchmarkPerson.class, 1L);
+            warmUp.find(BenchmarkCountry.class, 1L);
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void setUpIteration() {
+        session = sessionFactory.createSession();
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDownIteration() throws SQLException {
+        session.close();
+        database.reset(PERSONS);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDownTrial() throws SQLException {
+        resultSet.close();
+        statement.close();
+        database.close();
+    }
+
+    /**
+     * Load by id from the database, the persistence context is cleared first
+     */
+    @Benchmark
+    public BenchmarkPerson findCold() {
+        session.clear();
+        nextId = nextId % PERSONS + 1;
+        return session.find(BenchmarkPerson.class, nextId);
+    }
+
+    /**
+     * Find an entity already managed by the session
+     */
+    @Benchmark
+    public BenchmarkPerson findManaged() {
+        return session.find(BenchmarkPerson.class, 1L);
+    }
+
+    /**
+     * Assemble an entity from the second-level cache, the persistence context is cleared first
+     */
+    @Benchmark
+    public BenchmarkCountry findSecondLevelCached() {
+        session.clear();
+        return session.find(BenchmarkCountry.class, 1L);
+    }
+
+    /**
+     * Persist with a sequence id and flush the insert
+     */
+    @Benchmark
+    public BenchmarkPerson persistSequence() {
+        BenchmarkPerson newPerson = new BenchmarkPerson();
+        newPerson.setFirstName("Andrii");
+        newPerson.setLastName("Bobrov");
+        newPerson.setEmail("andrii@example.com");
+        newPerson.setAge(33);
+        session.persist(newPerson);
+        session.flush();
+        session.clear();
+        return newPerson;
+    }
+
+    /**
+     * Persist with an identity id and flush the insert
+     */
+    @Benchmark
+    public BenchmarkCountry persistIdentity() {
+        BenchmarkCountry country = new BenchmarkCountry();
+        country.setName("Poland");
+        session.persist(country);
+        session.flush();
+        session.clear();
+        return country;
+    }
+
+    /**
+     * Query by a property with a cached plan, the persistence context is cleared first
+     */
+    @Benchmark
+    public List<BenchmarkPerson> queryByProperty() {
+        session.clear();
+        nextId = nextId % PERSONS + 1;
+        return session.createQuery(BenchmarkPerson.class).where("id", EQ, nextId).getResultList();
+    }
+
+    /**
+     * Hydrate the single row of a scrollable result set, rewound before each call as {@code mapToEntity} advances it
+     */
+    @Benchmark
+    public Object mapToEntity() throws Exception {
+        resultSet.beforeFirst();
+        return personMetadata.getPersister().mapToEntity(resultSet, personMetadata);
+    }
+
+    @Benchmark
+    public Object[] toSnapshot() {
+        return session.toSnapshot(personMetadata, person);
+    }
+}
@@ -0,0 +1,92 @@
+package com.anderb.breskulorm.benchmark;
+
+import com.anderb.breskulorm.EntityKey;
+import com.anderb.breskulorm.EntityMetadata;
+import com.anderb.breskulorm.EntityMetadataResolver;
+import com.anderb.breskulorm.snapshot.SnapshotStore;
+import com.anderb.breskulorm.snapshot.SnapshotStrategy;
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Heap retained by the snapshots of a large session and the cost of dirty checking them, per
+ * {@link SnapshotStrategy}. Entity states are built once and copied into the store the way a session copies
+ * extracted state, so the retained heap counts the store only and not the values it shares with the entities.
+ * The retained heap is printed once per trial, {@code snapshot} and {@code dirtyCheck} are timed per entity.
+ */
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx1g")
+@State(Scope.Thread)
+public class SnapshotFootprintBenchmark {
+    private static final int ENTITIES = 200_000;
+    private static final String[] FIRST_NAMES = {"Andrii", "Ivan", "Olena", "Maria", "Taras", "Petro"};
+
+    @Param({"OBJECT_ARRAY", "COLUMNAR", "HASH"})
+    public SnapshotStrategy strategy;
+
+    private EntityKey[] keys;
+    private Object[][] states;
+    private SnapshotStore filledStore;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        EntityMetadata metadata = new EntityMetadataResolver(BenchmarkPerson.class)
+                .getEntityMetadata(BenchmarkPerson.class);
+        keys = new EntityKey[ENTITIES];
+        states = new Object[ENTITIES][];
+        for (int i = 0; i < ENTITIES; i++) {
+            keys[i] = EntityKey.of((long) i, metadata);
+            // age, email, first_name, last_name; new strings as a result set would return them
+            states[i] = new Object[]{
+                    20 + i % 50,
+                    "person" + i + "@example.com",
+                    new String(FIRST_NAMES[i % FIRST_NAMES.length]),
+                    "Lastname" + i % 1000
+            };
+        }
+        long before = usedHeap();
+        filledStore = fill();
+        long retained = usedHeap() - before;
+        System.out.printf("%n%s snapshots retain %d bytes per entity%n", strategy, retained / ENTITIES);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    @OperationsPerInvocation(ENTITIES)
+    public SnapshotStore snapshot() {
+        return fill();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    @OperationsPerInvocation(ENTITIES)
+    public int dirtyCheck() {
+        int dirty = 0;
+        for (int i = 0; i < ENTITIES; i++) {
+            if (filledStore.isDirty(keys[i], states[i])) {
+                dirty++;
+            }
+        }
+        return dirty;
+    }
+
+    private SnapshotStore fill() {
+        SnapshotStore store = strategy.newStore();
+        for (int i = 0; i < ENTITIES; i++) {
+            store.put(keys[i], states[i].clone());
+        }
+        return store;
+    }
+
+    private static long usedHeap() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+}
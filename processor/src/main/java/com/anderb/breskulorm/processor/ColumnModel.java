@@ -0,0 +1,86 @@
+package com.anderb.breskulorm.processor;
+
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+
+/**
+ * Persistent field of an entity as seen by the generated mapper
+ */
+class ColumnModel {
+    private final String fieldName;
+    private final String columnName;
+    private final TypeMirror type;
+    private final String typeName;
+    private final ColumnType columnType;
+    private final boolean directAccess;
+
+    ColumnModel(VariableElement field, String columnName, String typeName) {
+        this.fieldName = field.getSimpleName().toString();
+        this.columnName = columnName;
+        this.type = field.asType();
+        this.typeName = typeName;
+        this.columnType = ColumnType.of(type, typeName);
+        this.directAccess = !field.getModifiers().contains(Modifier.PRIVATE);
+    }
+
+    String getColumnName() {
+        return columnName;
+    }
+
+    String getFieldName() {
+        return fieldName;
+    }
+
+    /**
+     * Qualified name of a declared field type or keyword of a primitive one
+     */
+    String getTypeName() {
+        return typeName;
+    }
+
+    ColumnType getColumnType() {
+        return columnType;
+    }
+
+    /**
+     * Whether the generated code accesses the field directly instead of through its getter and setter
+     */
+    boolean isDirectAccess() {
+        return directAccess;
+    }
+
+    boolean isPrimitive() {
+        return type.getKind().isPrimitive();
+    }
+
+    /**
+     * Expression reading the field of the given entity variable
+     */
+    String read(String entity) {
+        if (directAccess) {
+            return entity + "." + fieldName;
+        }
+        String prefix = type.getKind() == TypeKind.BOOLEAN ? "is" : "get";
+        return entity + "." + prefix + capitalizedFieldName() + "()";
+    }
+
+    /**
+     * Statement writing the given value expression to the field of the given entity variable
+     */
+    String write(String entity, String value) {
+        if (directAccess) {
+            return entity + "." + fieldName + " = " + value + ";";
+        }
+        return entity + "." + getSetterName() + "(" + value + ");";
+    }
+
+    String getSetterName() {
+        return "set" + capitalizedFieldName();
+    }
+
+    private String capitalizedFieldName() {
+        return Character.toUpperCase(fieldName.charAt(0)) + fieldName.substring(1);
+    }
+}
@@ -0,0 +1,77 @@
+package com.anderb.breskulorm.processor;
+
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import java.util.Arrays;
+import java.util.Optional;
+
+/**
+ * JDBC access of a column Java type. Types without a dedicated {@code ResultSet}/{@code PreparedStatement}
+ * method are read with {@code getObject(index, type)} and written with {@code setObject}.
+ */
+enum ColumnType {
+    LONG(TypeKind.LONG, "java.lang.Long", "Long", "BIGINT"),
+    INT(TypeKind.INT, "java.lang.Integer", "Int", "INTEGER"),
+    SHORT(TypeKind.SHORT, "java.lang.Short", "Short", "SMALLINT"),
+    BYTE(TypeKind.BYTE, "java.lang.Byte", "Byte", "TINYINT"),
+    DOUBLE(TypeKind.DOUBLE, "java.lang.Double", "Double", "DOUBLE"),
+    FLOAT(TypeKind.FLOAT, "java.lang.Float", "Float", "REAL"),
+    BOOLEAN(TypeKind.BOOLEAN, "java.lang.Boolean", "Boolean", "BOOLEAN"),
+    STRING(null, "java.lang.String", "String", "VARCHAR"),
+    BIG_DECIMAL(null, "java.math.BigDecimal", "BigDecimal", "NUMERIC"),
+    SQL_DATE(null, "java.sql.Date", "Date", "DATE"),
+    SQL_TIME(null, "java.sql.Time", "Time", "TIME"),
+    SQL_TIMESTAMP(null, "java.sql.Timestamp", "Timestamp", "TIMESTAMP"),
+    OBJECT(null, null, "Object", "OTHER");
+
+    private final TypeKind primitiveKind;
+    private final String boxedTypeName;
+    private final String jdbcMethodSuffix;
+    private final String sqlType;
+
+    ColumnType(TypeKind primitiveKind, String boxedTypeName, String jdbcMethodSuffix, String sqlType) {
+        this.primitiveKind = primitiveKind;
+        this.boxedTypeName = boxedTypeName;
+        this.jdbcMethodSuffix = jdbcMethodSuffix;
+        this.sqlType = sqlType;
+    }
+
+    static ColumnType of(TypeMirror type, String typeName) {
+        if (type.getKind().isPrimitive()) {
+            return Arrays.stream(values())
+                    .filter(columnType -> columnType.primitiveKind == type.getKind())
+                    .findFirst()
+                    .orElseThrow(() -> new UnsupportedEntityException("unsupported primitive type " + type));
+        }
+        return byBoxedTypeName(typeName).orElse(OBJECT);
+    }
+
+    private static Optional<ColumnType> byBoxedTypeName(String typeName) {
+        return Arrays.stream(values())
+                .filter(columnType -> typeName.equals(columnType.boxedTypeName))
+                .findFirst();
+    }
+
+    String getterMethod() {
+        return "get" + jdbcMethodSuffix;
+    }
+
+    String setterMethod() {
+        return "set" + jdbcMethodSuffix;
+    }
+
+    String boxedTypeName() {
+        return boxedTypeName;
+    }
+
+    String sqlType() {
+        return sqlType;
+    }
+
+    /**
+     * Whether a {@code ResultSet} getter of this type returns a primitive and needs a {@code wasNull} check
+     */
+    boolean readsPrimitive() {
+        return primitiveKind != null;
+    }
+}
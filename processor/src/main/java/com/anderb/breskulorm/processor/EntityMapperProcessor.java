@@ -0,0 +1,58 @@
+package com.anderb.breskulorm.processor;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.TypeElement;
+import javax.tools.Diagnostic;
+import java.io.IOException;
+import java.util.Set;
+
+/**
+ * Generates a {@link com.anderb.breskulorm.mapper.GeneratedEntityMapper} with hard-coded SQL, hydration,
+ * parameter binding and state extraction for every {@link com.anderb.breskulorm.annotation.Entity} class.
+ * Private fields are accessed through JavaBean getters and setters, which may be generated by Lombok.
+ * Entities the processor cannot handle are reported as notes and keep being mapped by reflection.
+ */
+@SupportedAnnotationTypes("com.anderb.breskulorm.annotation.Entity")
+public class EntityMapperProcessor extends AbstractProcessor {
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        for (TypeElement annotation : annotations) {
+            for (Element element : roundEnv.getElementsAnnotatedWith(annotation)) {
+                if (element.getKind() == ElementKind.CLASS) {
+                    generateMapper((TypeElement) element);
+                }
+            }
+        }
+        return false;
+    }
+
+    private void generateMapper(TypeElement type) {
+        try {
+            EntityModel model = EntityModel.of(type, processingEnv);
+            new EntityMapperWriter(processingEnv.getFiler()).write(model, type);
+            if (model.isDirtyTracking()) {
+                new TrackedEntityWriter(processingEnv.getFiler()).write(model, type);
+            }
+        } catch (UnsupportedEntityException e) {
+            processingEnv.getMessager().printMessage(
+                    Diagnostic.Kind.NOTE,
+                    "Mapper is not generated, entity will be mapped by reflection: " + e.getMessage(),
+                    type
+            );
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(
+                    Diagnostic.Kind.ERROR, "Cannot write entity mapper: " + e.getMessage(), type);
+        }
+    }
+}
@@ -0,0 +1,261 @@
+package com.anderb.breskulorm.processor;
+
+import com.anderb.breskulorm.annotation.GenerationType;
+
+import javax.annotation.processing.Filer;
+import javax.lang.model.element.TypeElement;
+import javax.tools.JavaFileObject;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Writes the source of a {@link com.anderb.breskulorm.mapper.GeneratedEntityMapper} for an {@link EntityModel}
+ */
+class EntityMapperWriter {
+    private final Filer filer;
+
+    EntityMapperWriter(Filer filer) {
+        this.filer = filer;
+    }
+
+    void write(EntityModel model, TypeElement originatingElement) throws IOException {
+        String packageName = model.getPackageName();
+        String mapperName = packageName.isEmpty()
+                ? model.getMapperSimpleName()
+                : packageName + "." + model.getMapperSimpleName();
+        JavaFileObject file = filer.createSourceFile(mapperName, originatingElement);
+        try (PrintWriter out = new PrintWriter(file.openWriter())) {
+            writeMapper(out, model);
+        }
+    }
+
+    private void writeMapper(PrintWriter out, EntityModel model) {
+        String entity = model.getSimpleName();
+        if (!model.getPackageName().isEmpty()) {
+            out.println("package " + model.getPackageName() + ";");
+            out.println();
+        }
+        out.println("import com.anderb.breskulorm.annotation.GenerationType;");
+        if (model.isDirtyTracking()) {
+            out.println("import com.anderb.breskulorm.mapper.DirtyTracker;");
+        }
+        out.println("import com.anderb.breskulorm.mapper.GeneratedEntityMapper;");
+        out.println();
+        out.println("import javax.annotation.processing.Generated;");
+        out.println("import java.io.Serializable;");
+        out.println("import java.sql.PreparedStatement;");
+        out.println("import java.sql.ResultSet;");
+        out.println("import java.sql.SQLException;");
+        out.println("import java.sql.Types;");
+        out.println();
+        out.println("@Generated(\"" + EntityMapperProcessor.class.getName() + "\")");
+        out.println("public final class " + model.getMapperSimpleName()
+                + " implements GeneratedEntityMapper<" + entity + "> {");
+        out.println();
+        writeConstants(out, model);
+        writeDescriptor(out, model);
+        writeNewInstance(out, model);
+        writeHydrate(out, model);
+        writeExtractState(out, model);
+        writeSetState(out, model);
+        writeBindState(out, model);
+        writeIdAccess(out, model);
+        out.println("}");
+    }
+
+    private void writeConstants(PrintWriter out, EntityModel model) {
+        List<ColumnModel> stateColumns = model.getStateColumns();
+        String tableName = model.getTableName();
+        String idColumn = model.getId().getColumnName();
+        List<String> stateColumnNames = stateColumns.stream().map(ColumnModel::getColumnName).collect(Collectors.toList());
+        String stateColumnList = stateColumnNames.isEmpty() ? "" : ", " + String.join(", ", stateColumnNames);
+        String selectSql = String.format("SELECT %s%s FROM %s", idColumn, stateColumnList, tableName);
+
+        List<String> insertColumns = new ArrayList<>(stateColumnNames);
+        if (model.getIdGenerationType() != GenerationType.IDENTITY) {
+            insertColumns.add(idColumn);
+        }
+        String insertSql = String.format(
+                "INSERT INTO %s(%s) VALUES(%s)",
+                tableName,
+                String.join(", ", insertColumns),
+                String.join(", ", Collections.nCopies(insertColumns.size(), "?"))
+        );
+        String updateSql = String.format(
+                "UPDATE %s SET %s WHERE %s=?",
+                tableName,
+                stateColumnNames.stream().map(column -> column + "=?").collect(Collectors.joining(", ")),
+                idColumn
+        );
+        String deleteSql = String.format("DELETE FROM %s WHERE %s=?", tableName, idColumn);
+
+        out.println("    private static final String[] STATE_COLUMN_NAMES = {"
+                + stateColumnNames.stream().map(EntityMapperWriter::literal).collect(Collectors.joining(", "))
+                + "};");
+        out.println("    private static final Class<?>[] STATE_COLUMN_TYPES = {"
+                + stateColumns.stream().map(column -> column.getTypeName() + ".class").collect(Collectors.joining(", "))
+                + "};");
+        out.println("    private static final String SELECT_SQL = " + literal(selectSql) + ";");
+        out.println("    private static final String FIND_BY_ID_SQL = "
+                + literal(selectSql + " WHERE " + idColumn + "=?") + ";");
+        out.println("    private static final String INSERT_SQL = " + literal(insertSql) + ";");
+        out.println("    private static final String UPDATE_SQL = " + literal(updateSql) + ";");
+        out.println("    private static final String DELETE_SQL = " + literal(deleteSql) + ";");
+        out.println();
+    }
+
+    private void writeDescriptor(PrintWriter out, EntityModel model) {
+        String entity = model.getSimpleName();
+        writeGetter(out, "Class<" + entity + ">", "getEntityType", entity + ".class");
+        writeGetter(out, "String", "getTableName", literal(model.getTableName()));
+        writeGetter(out, "String", "getIdColumnName", literal(model.getId().getColumnName()));
+        writeGetter(out, "GenerationType", "getIdGenerationType", "GenerationType." + model.getIdGenerationType());
+        writeGetter(out, "String", "getSequenceName", literal(model.getSequenceName()));
+        writeGetter(out, "int", "getAllocationSize", String.valueOf(model.getAllocationSize()));
+        writeGetter(out, "Class<?>", "getIdType", model.getId().getTypeName() + ".class");
+        writeGetter(out, "String[]", "getStateColumnNames", "STATE_COLUMN_NAMES.clone()");
+        writeGetter(out, "Class<?>[]", "getStateColumnTypes", "STATE_COLUMN_TYPES.clone()");
+        writeGetter(out, "String", "getSelectSql", "SELECT_SQL");
+        writeGetter(out, "String", "getFindByIdSql", "FIND_BY_ID_SQL");
+        writeGetter(out, "String", "getInsertSql", "INSERT_SQL");
+        writeGetter(out, "String", "getUpdateSql", "UPDATE_SQL");
+        writeGetter(out, "String", "getDeleteSql", "DELETE_SQL");
+    }
+
+    private void writeGetter(PrintWriter out, String type, String name, String value) {
+        out.println("    @Override");
+        out.println("    public " + type + " " + name + "() {");
+        out.println("        return " + value + ";");
+        out.println("    }");
+        out.println();
+    }
+
+    private void writeNewInstance(PrintWriter out, EntityModel model) {
+        out.println("    @Override");
+        out.println("    public " + model.getSimpleName() + " newInstance() {");
+        out.println("        return new " + model.getInstanceSimpleName() + "();");
+        out.println("    }");
+        out.println();
+    }
+
+    private void writeHydrate(PrintWriter out, EntityModel model) {
+        String entity = model.getSimpleName();
+        out.println("    @Override");
+        out.println("    public " + entity + " hydrate(ResultSet resultSet) throws SQLException {");
+        out.println("        " + entity + " entity = new " + model.getInstanceSimpleName() + "();");
+        List<ColumnModel> columns = new ArrayList<>();
+        columns.add(model.getId());
+        columns.addAll(model.getStateColumns());
+        for (int i = 0; i < columns.size(); i++) {
+            writeReadColumn(out, columns.get(i), i + 1);
+        }
+        writeClearDirtyColumns(out, model);
+        out.println("        return entity;");
+        out.println("    }");
+        out.println();
+    }
+
+    private void writeReadColumn(PrintWriter out, ColumnModel column, int position) {
+        ColumnType columnType = column.getColumnType();
+        if (columnType == ColumnType.OBJECT) {
+            String value = "resultSet.getObject(" + position + ", " + column.getTypeName() + ".class)";
+            out.println("        " + column.write("entity", value));
+            return;
+        }
+        String value = "resultSet." + columnType.getterMethod() + "(" + position + ")";
+        if (column.isPrimitive() || !columnType.readsPrimitive()) {
+            out.println("        " + column.write("entity", value));
+            return;
+        }
+        String variable = "value" + position;
+        out.println("        var " + variable + " = " + value + ";");
+        out.println("        " + column.write("entity", "resultSet.wasNull() ? null : " + variable));
+    }
+
+    private void writeClearDirtyColumns(PrintWriter out, EntityModel model) {
+        if (!model.isDirtyTracking()) {
+            return;
+        }
+        out.println("        if (entity instanceof DirtyTracker) {");
+        out.println("            ((DirtyTracker) entity).clearDirtyColumns();");
+        out.println("        }");
+    }
+
+    private void writeExtractState(PrintWriter out, EntityModel model) {
+        out.println("    @Override");
+        out.println("    public Object[] extractState(" + model.getSimpleName() + " entity) {");
+        out.println("        return new Object[]{"
+                + model.getStateColumns().stream().map(column -> column.read("entity")).collect(Collectors.joining(", "))
+                + "};");
+        out.println("    }");
+        out.println();
+    }
+
+    private void writeSetState(PrintWriter out, EntityModel model) {
+        List<ColumnModel> stateColumns = model.getStateColumns();
+        out.println("    @Override");
+        out.println("    public void setState(" + model.getSimpleName() + " entity, Object[] state) {");
+        for (int i = 0; i < stateColumns.size(); i++) {
+            ColumnModel column = stateColumns.get(i);
+            String type = column.isPrimitive() ? column.getColumnType().boxedTypeName() : column.getTypeName();
+            out.println("        " + column.write("entity", "(" + type + ") state[" + i + "]"));
+        }
+        writeClearDirtyColumns(out, model);
+        out.println("    }");
+        out.println();
+    }
+
+    private void writeBindState(PrintWriter out, EntityModel model) {
+        List<ColumnModel> stateColumns = model.getStateColumns();
+        out.println("    @Override");
+        out.println("    public int bindState(PreparedStatement statement, " + model.getSimpleName()
+                + " entity, int startIndex) throws SQLException {");
+        for (int i = 0; i < stateColumns.size(); i++) {
+            writeBindColumn(out, stateColumns.get(i), "startIndex + " + i, "state" + i);
+        }
+        out.println("        return startIndex + " + stateColumns.size() + ";");
+        out.println("    }");
+        out.println();
+    }
+
+    private void writeBindColumn(PrintWriter out, ColumnModel column, String index, String variable) {
+        ColumnType columnType = column.getColumnType();
+        String value = column.read("entity");
+        if (columnType == ColumnType.OBJECT) {
+            out.println("        statement.setObject(" + index + ", " + value + ");");
+            return;
+        }
+        if (column.isPrimitive()) {
+            out.println("        statement." + columnType.setterMethod() + "(" + index + ", " + value + ");");
+            return;
+        }
+        out.println("        " + column.getTypeName() + " " + variable + " = " + value + ";");
+        out.println("        if (" + variable + " == null) {");
+        out.println("            statement.setNull(" + index + ", Types." + columnType.sqlType() + ");");
+        out.println("        } else {");
+        out.println("            statement." + columnType.setterMethod() + "(" + index + ", " + variable + ");");
+        out.println("        }");
+    }
+
+    private void writeIdAccess(PrintWriter out, EntityModel model) {
+        ColumnModel id = model.getId();
+        String idType = id.isPrimitive() ? id.getColumnType().boxedTypeName() : id.getTypeName();
+        out.println("    @Override");
+        out.println("    public Serializable getId(" + model.getSimpleName() + " entity) {");
+        out.println("        return " + id.read("entity") + ";");
+        out.println("    }");
+        out.println();
+        out.println("    @Override");
+        out.println("    public void setId(" + model.getSimpleName() + " entity, Serializable id) {");
+        out.println("        " + id.write("entity", "(" + idType + ") id"));
+        out.println("    }");
+    }
+
+    private static String literal(String value) {
+        return '"' + value.replace("\\", "\\\\").replace("\"", "\\\"") + '"';
+    }
+}
@@ -0,0 +1,230 @@
+package com.anderb.breskulorm.processor;
+
+import com.anderb.breskulorm.annotation.Column;
+import com.anderb.breskulorm.annotation.Convert;
+import com.anderb.breskulorm.annotation.DirtyTracking;
+import com.anderb.breskulorm.annotation.GenerationType;
+import com.anderb.breskulorm.annotation.Id;
+import com.anderb.breskulorm.annotation.ManyToOne;
+import com.anderb.breskulorm.annotation.OneToMany;
+import com.anderb.breskulorm.annotation.Table;
+import com.anderb.breskulorm.annotation.Version;
+import com.anderb.breskulorm.mapper.GeneratedEntityMapper;
+
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.lang.model.element.*;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Mapping of an {@link com.anderb.breskulorm.annotation.Entity} class resolved from source.
+ * Mirrors the rules of {@code EntityMetadataResolver}: persistent fields are the declared fields
+ * annotated with {@link Id} or {@link Column}, ordered by field name.
+ */
+class EntityModel {
+    private final String packageName;
+    private final String simpleName;
+    private final String tableName;
+    private final GenerationType idGenerationType;
+    private final String sequenceName;
+    private final int allocationSize;
+    private final ColumnModel id;
+    private final List<ColumnModel> stateColumns;
+    private final boolean dirtyTracking;
+
+    private EntityModel(String packageName,
+                        String simpleName,
+                        String tableName,
+                        GenerationType idGenerationType,
+                        String sequenceName,
+                        int allocationSize,
+                        ColumnModel id,
+                        List<ColumnModel> stateColumns,
+                        boolean dirtyTracking) {
+        this.packageName = packageName;
+        this.simpleName = simpleName;
+        this.tableName = tableName;
+        this.idGenerationType = idGenerationType;
+        this.sequenceName = sequenceName;
+        this.allocationSize = allocationSize;
+        this.id = id;
+        this.stateColumns = stateColumns;
+        this.dirtyTracking = dirtyTracking;
+    }
+
+    static EntityModel of(TypeElement type, ProcessingEnvironment env) {
+        checkInstantiable(type);
+        Table table = type.getAnnotation(Table.class);
+        if (table == null) {
+            throw new UnsupportedEntityException("@Table annotation is missing");
+        }
+        List<VariableElement> declaredFields = ElementFilter.fieldsIn(type.getEnclosedElements());
+        checkSupportedFields(declaredFields);
+        List<VariableElement> fields = declaredFields
+                .stream()
+                .filter(field -> field.getAnnotation(Id.class) != null || field.getAnnotation(Column.class) != null)
+                .sorted(Comparator.comparing(field -> field.getSimpleName().toString()))
+                .collect(Collectors.toList());
+        List<VariableElement> idFields = fields.stream()
+                .filter(field -> field.getAnnotation(Id.class) != null)
+                .collect(Collectors.toList());
+        if (idFields.size() != 1) {
+            throw new UnsupportedEntityException("exactly one @Id field is required");
+        }
+        VariableElement idField = idFields.get(0);
+        Id idAnnotation = idField.getAnnotation(Id.class);
+        if (idAnnotation.allocationSize() < 1) {
+            throw new UnsupportedEntityException("@Id allocationSize must be positive");
+        }
+        ColumnModel id = toColumn(idField, env);
+        if (!id.isPrimitive() && !env.getTypeUtils().isAssignable(
+                idField.asType(), env.getElementUtils().getTypeElement("java.io.Serializable").asType())) {
+            throw new UnsupportedEntityException("@Id type must be Serializable");
+        }
+        List<ColumnModel> stateColumns = fields.stream()
+                .filter(field -> field != idField)
+                .map(field -> toColumn(field, env))
+                .collect(Collectors.toList());
+        boolean dirtyTracking = type.getAnnotation(DirtyTracking.class) != null;
+        if (dirtyTracking) {
+            checkTrackable(type, stateColumns);
+        }
+        return new EntityModel(
+                env.getElementUtils().getPackageOf(type).getQualifiedName().toString(),
+                type.getSimpleName().toString(),
+                table.value(),
+                idAnnotation.generatedValue(),
+                idAnnotation.sequenceName(),
+                idAnnotation.allocationSize(),
+                id,
+                stateColumns,
+                dirtyTracking
+        );
+    }
+
+    private static void checkSupportedFields(List<VariableElement> fields) {
+        for (VariableElement field : fields) {
+            if (field.getAnnotation(ManyToOne.class) != null || field.getAnnotation(OneToMany.class) != null) {
+                throw new UnsupportedEntityException("association field " + field + " is not supported");
+            }
+            if (field.getAnnotation(Version.class) != null) {
+                throw new UnsupportedEntityException("version field " + field + " is not supported");
+            }
+        }
+    }
+
+    private static void checkTrackable(TypeElement type, List<ColumnModel> stateColumns) {
+        if (type.getModifiers().contains(Modifier.FINAL)) {
+            throw new UnsupportedEntityException("@DirtyTracking entity must not be final");
+        }
+        if (stateColumns.stream().anyMatch(ColumnModel::isDirectAccess)) {
+            throw new UnsupportedEntityException("@DirtyTracking entity fields must be private and changed by setters");
+        }
+    }
+
+    private static void checkInstantiable(TypeElement type) {
+        if (type.getNestingKind() != NestingKind.TOP_LEVEL) {
+            throw new UnsupportedEntityException("only top level classes are supported");
+        }
+        if (type.getModifiers().contains(Modifier.ABSTRACT)) {
+            throw new UnsupportedEntityException("abstract classes are not supported");
+        }
+        List<ExecutableElement> constructors = ElementFilter.constructorsIn(type.getEnclosedElements());
+        boolean hasDefaultConstructor = constructors.stream()
+                .anyMatch(constructor -> constructor.getParameters().isEmpty()
+                        && !constructor.getModifiers().contains(Modifier.PRIVATE));
+        if (!hasDefaultConstructor) {
+            throw new UnsupportedEntityException("non-private default constructor is required");
+        }
+    }
+
+    private static ColumnModel toColumn(VariableElement field, ProcessingEnvironment env) {
+        if (field.getModifiers().contains(Modifier.FINAL) || field.getModifiers().contains(Modifier.STATIC)) {
+            throw new UnsupportedEntityException("field " + field + " must not be final or static");
+        }
+        if (field.getAnnotation(Convert.class) != null) {
+            throw new UnsupportedEntityException("converted field " + field + " is not supported");
+        }
+        return new ColumnModel(field, getColumnName(field), getTypeName(field, env));
+    }
+
+    private static String getTypeName(VariableElement field, ProcessingEnvironment env) {
+        TypeMirror type = field.asType();
+        if (type.getKind().isPrimitive()) {
+            return type.getKind().name().toLowerCase();
+        }
+        if (type.getKind() != TypeKind.DECLARED || !((DeclaredType) type).getTypeArguments().isEmpty()) {
+            throw new UnsupportedEntityException("field " + field + " has unsupported type " + type);
+        }
+        TypeElement typeElement = (TypeElement) env.getTypeUtils().asElement(type);
+        if (typeElement.getKind() == ElementKind.ENUM) {
+            throw new UnsupportedEntityException("enum field " + field + " is not supported");
+        }
+        return typeElement.getQualifiedName().toString();
+    }
+
+    private static String getColumnName(VariableElement field) {
+        Id id = field.getAnnotation(Id.class);
+        String name = id != null ? id.value() : field.getAnnotation(Column.class).value();
+        return name.isEmpty() ? field.getSimpleName().toString() : name;
+    }
+
+    String getPackageName() {
+        return packageName;
+    }
+
+    String getSimpleName() {
+        return simpleName;
+    }
+
+    String getMapperSimpleName() {
+        return simpleName + GeneratedEntityMapper.SUFFIX;
+    }
+
+    /**
+     * Simple name of the change tracking subclass generated for {@link DirtyTracking} entities
+     */
+    String getTrackedSimpleName() {
+        return simpleName + "_Tracked";
+    }
+
+    /**
+     * Simple name of the class the generated mapper instantiates
+     */
+    String getInstanceSimpleName() {
+        return dirtyTracking ? getTrackedSimpleName() : simpleName;
+    }
+
+    boolean isDirtyTracking() {
+        return dirtyTracking;
+    }
+
+    String getTableName() {
+        return tableName;
+    }
+
+    GenerationType getIdGenerationType() {
+        return idGenerationType;
+    }
+
+    String getSequenceName() {
+        return sequenceName;
+    }
+
+    int getAllocationSize() {
+        return allocationSize;
+    }
+
+    ColumnModel getId() {
+        return id;
+    }
+
+    List<ColumnModel> getStateColumns() {
+        return stateColumns;
+    }
+}
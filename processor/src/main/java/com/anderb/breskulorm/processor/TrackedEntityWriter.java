@@ -0,0 +1,76 @@
+package com.anderb.breskulorm.processor;
+
+import javax.annotation.processing.Filer;
+import javax.lang.model.element.TypeElement;
+import javax.tools.JavaFileObject;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.List;
+
+/**
+ * Writes the source of a {@link com.anderb.breskulorm.mapper.DirtyTracker} subclass of a
+ * {@link com.anderb.breskulorm.annotation.DirtyTracking} entity. State column setters are overridden
+ * to mark the column dirty when the new value differs from the current one.
+ */
+class TrackedEntityWriter {
+    private final Filer filer;
+
+    TrackedEntityWriter(Filer filer) {
+        this.filer = filer;
+    }
+
+    void write(EntityModel model, TypeElement originatingElement) throws IOException {
+        String packageName = model.getPackageName();
+        String className = packageName.isEmpty()
+                ? model.getTrackedSimpleName()
+                : packageName + "." + model.getTrackedSimpleName();
+        JavaFileObject file = filer.createSourceFile(className, originatingElement);
+        try (PrintWriter out = new PrintWriter(file.openWriter())) {
+            writeTrackedEntity(out, model);
+        }
+    }
+
+    private void writeTrackedEntity(PrintWriter out, EntityModel model) {
+        List<ColumnModel> stateColumns = model.getStateColumns();
+        if (!model.getPackageName().isEmpty()) {
+            out.println("package " + model.getPackageName() + ";");
+            out.println();
+        }
+        out.println("import com.anderb.breskulorm.mapper.DirtyTracker;");
+        out.println();
+        out.println("import javax.annotation.processing.Generated;");
+        out.println("import java.util.BitSet;");
+        out.println("import java.util.Objects;");
+        out.println();
+        out.println("@Generated(\"" + EntityMapperProcessor.class.getName() + "\")");
+        out.println("public class " + model.getTrackedSimpleName()
+                + " extends " + model.getSimpleName() + " implements DirtyTracker {");
+        out.println();
+        out.println("    private final transient BitSet dirtyColumns = new BitSet(" + stateColumns.size() + ");");
+        out.println();
+        for (int i = 0; i < stateColumns.size(); i++) {
+            writeSetter(out, stateColumns.get(i), i);
+        }
+        out.println("    @Override");
+        out.println("    public BitSet dirtyColumns() {");
+        out.println("        return dirtyColumns;");
+        out.println("    }");
+        out.println();
+        out.println("    @Override");
+        out.println("    public void clearDirtyColumns() {");
+        out.println("        dirtyColumns.clear();");
+        out.println("    }");
+        out.println("}");
+    }
+
+    private void writeSetter(PrintWriter out, ColumnModel column, int index) {
+        out.println("    @Override");
+        out.println("    public void " + column.getSetterName() + "(" + column.getTypeName() + " value) {");
+        out.println("        if (!Objects.equals(" + column.read("super") + ", value)) {");
+        out.println("            dirtyColumns.set(" + index + ");");
+        out.println("        }");
+        out.println("        " + column.write("super", "value"));
+        out.println("    }");
+        out.println();
+    }
+}
@@ -0,0 +1,11 @@
+package com.anderb.breskulorm.processor;
+
+/**
+ * Thrown when a mapper cannot be generated for an entity, which then falls back to reflection at runtime
+ */
+class UnsupportedEntityException extends RuntimeException {
+
+    UnsupportedEntityException(String message) {
+        super(message);
+    }
+}
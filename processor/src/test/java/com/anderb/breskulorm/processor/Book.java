@@ -0,0 +1,34 @@
+package com.anderb.breskulorm.processor;
+
+import com.anderb.breskulorm.annotation.*;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import static com.anderb.breskulorm.annotation.GenerationType.IDENTITY;
+
+@Data
+@Entity
+@DirtyTracking
+@Table("books")
+public class Book {
+    @Id(generatedValue = IDENTITY)
+    private Long id;
+
+    @Column
+    private String title;
+
+    @Column
+    private int pages;
+
+    @Column
+    private Boolean available;
+
+    @Column
+    private BigDecimal price;
+
+    @Column("published_on")
+    private LocalDate publishedOn;
+
+}
@@ -0,0 +1,19 @@
+package com.anderb.breskulorm.processor;
+
+import com.anderb.breskulorm.annotation.*;
+import lombok.Data;
+
+@Data
+@Entity
+@Table("bookmarks")
+public class Bookmark {
+    @Id(generatedValue = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column
+    private int page;
+
+    @ManyToOne("book_id")
+    private Book book;
+
+}
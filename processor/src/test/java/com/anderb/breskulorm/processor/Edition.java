@@ -0,0 +1,20 @@
+package com.anderb.breskulorm.processor;
+
+import com.anderb.breskulorm.annotation.*;
+import lombok.Data;
+
+@Data
+@Entity
+@Table("editions")
+public class Edition {
+    @Id(generatedValue = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column
+    private String title;
+
+    @Version
+    @Column
+    private Long version;
+
+}
@@ -0,0 +1,124 @@
+package com.anderb.breskulorm.processor;
+
+import com.anderb.breskulorm.EntityMetadata;
+import com.anderb.breskulorm.Session;
+import com.anderb.breskulorm.SessionFactory;
+import com.anderb.breskulorm.mapper.DirtyTracker;
+import com.anderb.breskulorm.mapper.GeneratedEntityMapper;
+import com.anderb.breskulorm.mapper.ReflectiveEntityMapper;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.BitSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EntityMapperProcessorTest {
+
+    private SessionFactory subject;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:processor;DB_CLOSE_DELAY=-1");
+        dataSource.setUser("sa");
+        dataSource.setPassword("sa");
+        try (var conn = dataSource.getConnection();
+             var stm = conn.createStatement();
+             var is = getClass().getClassLoader().getResourceAsStream("prepare-books.sql")) {
+            stm.execute(new String(is.readAllBytes()));
+        }
+        subject = new SessionFactory(dataSource, Book.class, Shelf.class, Bookmark.class, Edition.class);
+    }
+
+    @Test
+    void resolve_whenMapperGenerated_shouldBuildMetadataFromGeneratedMapper() {
+        EntityMetadata metadata = subject.getMetadataResolver().getEntityMetadata(Book.class);
+        assertTrue(metadata.getMapper() instanceof GeneratedEntityMapper);
+        assertEquals("Book_Mapper", metadata.getMapper().getClass().getSimpleName());
+        assertNull(metadata.getFields());
+        assertEquals("SELECT id, available, pages, price, published_on, title FROM books WHERE id=?",
+                metadata.getFindByIdSql());
+        assertEquals("orm_sequence", metadata.getSequenceName());
+        assertEquals(1, metadata.getAllocationSize());
+    }
+
+    @Test
+    void resolve_whenEntityIsNotSupportedByProcessor_shouldFallBackToReflection() {
+        EntityMetadata metadata = subject.getMetadataResolver().getEntityMetadata(Shelf.class);
+        assertTrue(metadata.getMapper() instanceof ReflectiveEntityMapper);
+    }
+
+    @Test
+    void resolve_whenEntityHasAssociation_shouldNotGenerateMapperAndFallBackToReflection() {
+        EntityMetadata metadata = subject.getMetadataResolver().getEntityMetadata(Bookmark.class);
+        assertTrue(metadata.getMapper() instanceof ReflectiveEntityMapper);
+        assertThrows(ClassNotFoundException.class,
+                () -> Class.forName(Bookmark.class.getName() + "_Mapper"));
+    }
+
+    @Test
+    void resolve_whenEntityIsVersioned_shouldNotGenerateMapperAndFallBackToReflection() {
+        EntityMetadata metadata = subject.getMetadataResolver().getEntityMetadata(Edition.class);
+        assertTrue(metadata.getMapper() instanceof ReflectiveEntityMapper);
+        assertTrue(metadata.isVersioned());
+        assertThrows(ClassNotFoundException.class,
+                () -> Class.forName(Edition.class.getName() + "_Mapper"));
+    }
+
+    @Test
+    void find_whenMapperGenerated_shouldHydrateEntity() {
+        Session session = subject.createSession();
+        Book book = session.find(Book.class, 1L);
+        assertEquals("Dune", book.getTitle());
+        assertEquals(412, book.getPages());
+        assertTrue(book.getAvailable());
+        assertEquals(new BigDecimal("9.99"), book.getPrice());
+        assertEquals(LocalDate.of(1965, 8, 1), book.getPublishedOn());
+        session.close();
+    }
+
+    @Test
+    void find_whenEntityTracksChanges_shouldUpdateTrackedColumnsWithoutSnapshot() {
+        Session session = subject.createSession();
+        Book book = session.find(Book.class, 1L);
+        assertTrue(book instanceof DirtyTracker);
+        assertTrue(((DirtyTracker) book).dirtyColumns().isEmpty());
+        assertTrue(session.getSnapshots().isEmpty());
+        book.setTitle("Dune");
+        assertTrue(((DirtyTracker) book).dirtyColumns().isEmpty());
+        book.setPages(500);
+        assertEquals(BitSet.valueOf(new long[]{0b10}), ((DirtyTracker) book).dirtyColumns());
+        session.flush();
+        assertTrue(((DirtyTracker) book).dirtyColumns().isEmpty());
+        session.close();
+
+        Session session2 = subject.createSession();
+        assertEquals(500, session2.find(Book.class, 1L).getPages());
+        session2.close();
+    }
+
+    @Test
+    void persist_whenMapperGenerated_shouldBindStateAndAssignGeneratedId() {
+        Session session = subject.createSession();
+        Book book = new Book();
+        book.setTitle("Solaris");
+        book.setPages(204);
+        session.persist(book);
+        assertNull(book.getId());
+        session.flush();
+        assertNotNull(book.getId());
+        book.setPrice(new BigDecimal("5.50"));
+        session.close();
+
+        Session session2 = subject.createSession();
+        Book found = session2.find(Book.class, book.getId());
+        assertEquals("Solaris", found.getTitle());
+        assertNull(found.getAvailable());
+        assertEquals(new BigDecimal("5.50"), found.getPrice());
+        session2.close();
+    }
+}
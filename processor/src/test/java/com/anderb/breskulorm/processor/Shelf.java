@@ -0,0 +1,20 @@
+package com.anderb.breskulorm.processor;
+
+import com.anderb.breskulorm.annotation.*;
+import lombok.Data;
+
+@Data
+@Entity
+@Table("shelves")
+public class Shelf {
+    @Id(generatedValue = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column
+    private Genre genre;
+
+    public enum Genre {
+        FICTION, SCIENCE
+    }
+
+}
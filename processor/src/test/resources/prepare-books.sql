@@ -0,0 +1,12 @@
+DROP TABLE IF EXISTS BOOKS;
+CREATE TABLE BOOKS (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    title VARCHAR(255) NOT NULL,
+    pages INT NOT NULL,
+    available BOOLEAN,
+    price DECIMAL(10, 2),
+    published_on DATE,
+    PRIMARY KEY (id)
+);
+
+INSERT INTO books(title, pages, available, price, published_on) VALUES ('Dune', 412, true, 9.99, '1965-08-01');
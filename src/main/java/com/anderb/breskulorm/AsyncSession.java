@@ -0,0 +1,178 @@
+package com.anderb.breskulorm;
+
+import java.io.Serializable;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Non-blocking facade of a {@link Session}. Every call is queued and run on the
+ * {@link SessionFactory#getAsyncExecutor() async executor} one at a time in call order, so the underlying
+ * session keeps its single-threaded semantics while callers do not block. The session and its connection are
+ * opened by the first queued task. Entities returned by the futures stay managed by the session and may be
+ * modified between calls, changes are visible to the tasks queued afterwards.
+ */
+public class AsyncSession {
+    private final SessionFactory sessionFactory;
+    private final boolean readOnly;
+    private final SerialExecutor serialExecutor;
+    /**
+     * Only accessed by queued tasks
+     */
+    private Session session;
+    private boolean closed;
+
+    AsyncSession(SessionFactory sessionFactory, Executor executor, boolean readOnly) {
+        this.sessionFactory = sessionFactory;
+        this.readOnly = readOnly;
+        this.serialExecutor = new SerialExecutor(executor);
+    }
+
+    public <T> CompletableFuture<T> find(Class<T> type, Object id) {
+        return submit(session -> session.find(type, id));
+    }
+
+    public <T> CompletableFuture<List<T>> findAll(Class<T> type, Collection<? extends Serializable> ids) {
+        return submit(session -> session.findAll(type, ids));
+    }
+
+    public CompletableFuture<Void> persist(Object entity) {
+        return run(session -> session.persist(entity));
+    }
+
+    public CompletableFuture<Void> delete(Object entity) {
+        return run(session -> session.delete(entity));
+    }
+
+    public CompletableFuture<Void> flush() {
+        return run(Session::flush);
+    }
+
+    /**
+     * Flush and commit the current transaction, then begin a new one
+     */
+    public CompletableFuture<Void> commit() {
+        return run(session -> {
+            session.flush();
+            session.getTransaction().commit();
+            session.getTransaction().begin();
+        });
+    }
+
+    /**
+     * Close the session, committing pending changes like {@link Session#close()}
+     */
+    public CompletableFuture<Void> close() {
+        CompletableFuture<Void> result = new CompletableFuture<>();
+        execute(result, () -> {
+            closed = true;
+            if (session != null) {
+                session.close();
+            }
+            return null;
+        });
+        return result;
+    }
+
+    /**
+     * Run work with the session on the executor after the previously queued calls
+     */
+    public <T> CompletableFuture<T> submit(Function<Session, T> work) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        execute(result, () -> work.apply(getSession()));
+        return result;
+    }
+
+    private CompletableFuture<Void> run(Consumer<Session> work) {
+        return submit(session -> {
+            work.accept(session);
+            return null;
+        });
+    }
+
+    private <T> void execute(CompletableFuture<T> result, Task<T> task) {
+        serialExecutor.execute(() -> {
+            try {
+                result.complete(task.call());
+            } catch (Throwable e) {
+                result.completeExceptionally(e);
+            }
+        }, result::completeExceptionally);
+    }
+
+    private Session getSession() {
+        if (closed) {
+            throw new IllegalStateException("AsyncSession is closed");
+        }
+        if (session == null) {
+            session = sessionFactory.createSession(readOnly);
+        }
+        return session;
+    }
+
+    @FunctionalInterface
+    private interface Task<T> {
+        T call();
+    }
+
+    /**
+     * Runs tasks one at a time on the delegate executor in submission order. When the delegate rejects a task,
+     * that task and the tasks queued behind it are rejected, later tasks are offered to the delegate again.
+     */
+    private static class SerialExecutor {
+        private final ArrayDeque<QueuedTask> tasks = new ArrayDeque<>();
+        private final Executor delegate;
+        private QueuedTask active;
+
+        SerialExecutor(Executor delegate) {
+            this.delegate = delegate;
+        }
+
+        /**
+         * @param onRejected called instead of the task when the delegate rejects it
+         */
+        synchronized void execute(Runnable task, Consumer<Throwable> onRejected) {
+            tasks.add(new QueuedTask(() -> {
+                try {
+                    task.run();
+                } finally {
+                    scheduleNext();
+                }
+            }, onRejected));
+            if (active == null) {
+                scheduleNext();
+            }
+        }
+
+        private synchronized void scheduleNext() {
+            active = tasks.poll();
+            if (active == null) {
+                return;
+            }
+            try {
+                delegate.execute(active.task);
+            } catch (RejectedExecutionException e) {
+                active.onRejected.accept(e);
+                active = null;
+                for (QueuedTask queued = tasks.poll(); queued != null; queued = tasks.poll()) {
+                    queued.onRejected.accept(e);
+                }
+            }
+        }
+    }
+
+    private static final class QueuedTask {
+        private final Runnable task;
+        private final Consumer<Throwable> onRejected;
+
+        QueuedTask(Runnable task, Consumer<Throwable> onRejected) {
+            this.task = task;
+            this.onRejected = onRejected;
+        }
+    }
+}
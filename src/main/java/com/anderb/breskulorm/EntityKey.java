@@ -5,6 +5,7 @@ import lombok.Getter;
 import lombok.Setter;
 
 import java.io.Serializable;
+import java.util.Objects;
 
 @Getter
 @Setter
@@ -17,6 +18,19 @@ public class EntityKey {
         return new EntityKey(id, metadata);
     }
 
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        EntityKey that = (EntityKey) o;
+        return Objects.equals(identifier, that.identifier) && metadata.getType() == that.metadata.getType();
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Objects.hashCode(identifier) + metadata.getType().hashCode();
+    }
+
     @Override
     public String toString() {
         return "Entity{" +
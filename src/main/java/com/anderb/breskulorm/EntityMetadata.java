@@ -1,22 +1,274 @@
 package com.anderb.breskulorm;
 
+import com.anderb.breskulorm.accessor.PropertyAccessor;
+import com.anderb.breskulorm.association.CollectionRole;
+import com.anderb.breskulorm.association.Reference;
+import com.anderb.breskulorm.annotation.Cacheable;
 import com.anderb.breskulorm.annotation.GenerationType;
+import com.anderb.breskulorm.mapper.ColumnBinder;
+import com.anderb.breskulorm.mapper.ColumnReader;
+import com.anderb.breskulorm.mapper.EntityMapper;
+import lombok.AccessLevel;
 import lombok.Builder;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
 
+import java.io.Serializable;
 import java.lang.reflect.Field;
+import java.util.BitSet;
+import java.util.Collections;
 import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * Mapping of an entity type. Reflection details ({@link #fields}, {@link #idField}, accessors and readers)
+ * are only resolved for entities without a generated mapper and are {@code null} otherwise,
+ * so runtime code goes through {@link #mapper}.
+ */
 @Builder
 @Data
 public class EntityMetadata {
     private final Class<?> type;
     private final String idColumnName;
     private final String tableName;
+    /**
+     * Non-id column names in the order their values appear in snapshots and insert/update SQL
+     */
+    private final String[] stateColumnNames;
+    /**
+     * Java types of the state values in {@link #stateColumnNames} order, attribute types for converted fields
+     */
+    private final Class<?>[] stateTypes;
+    /**
+     * Column names keyed by the entity property names, including the id property
+     */
+    private final Map<String, String> propertyColumnNames;
     private final LinkedHashMap<String, Field> fields;
     private final Field idField;
-    private final String updateSetValueSql;
-    private final String insertSetValueSql;
+    /**
+     * Type of the id property, wrapped if primitive
+     */
+    private final Class<?> idType;
+    /**
+     * Accessors of all persistent properties keyed by column name, in {@link #fields} order
+     */
+    private final LinkedHashMap<String, PropertyAccessor> accessors;
+    private final PropertyAccessor idAccessor;
+    /**
+     * Accessors of all non-id properties in {@link #stateColumnNames} order
+     */
+    private final PropertyAccessor[] stateAccessors;
+    /**
+     * Positional readers of the {@link #selectSql} columns: the id column followed by {@link #stateColumnNames}
+     */
+    private final ColumnReader[] columnReaders;
+    private final ColumnBinder idBinder;
+    /**
+     * Binders of the state columns in {@link #stateColumnNames} order, converting {@code Convert} fields
+     */
+    private final ColumnBinder[] stateBinders;
+    private final EntityMapper<Object> mapper;
+    /**
+     * Select of the id column followed by the state columns, without a where clause
+     */
+    private final String selectSql;
+    private final String findByIdSql;
+    /**
+     * Select by {@code IN} list keyed by the number of id parameters, ids are padded up to one of these sizes
+     */
+    private final NavigableMap<Integer, String> findByIdsSql;
+    private final String insertSql;
+    private final String updateSql;
+    private final String deleteSql;
     private final EntityPersister persister;
     private final GenerationType idGenerationType;
+    private final String sequenceName;
+    private final int allocationSize;
+    /**
+     * Second-level cache settings, {@code null} if the entity is not cached
+     */
+    private final Cacheable cacheable;
+    /**
+     * Index of the {@code Version} column in {@link #stateColumnNames}, -1 if the entity is not versioned.
+     * {@link #updateSql} and {@link #deleteSql} of versioned entities end with a version condition.
+     */
+    @Builder.Default
+    private final int versionIndex = -1;
+    /**
+     * {@code ManyToOne} properties, their foreign key columns are state columns holding the referenced ids
+     */
+    @Builder.Default
+    private final Reference[] references = new Reference[0];
+    /**
+     * {@code OneToMany} properties, not mapped to columns of this entity
+     */
+    @Builder.Default
+    private final CollectionRole[] collectionRoles = new CollectionRole[0];
+    /**
+     * Updates of a subset of state columns keyed by the set column indexes, see {@link #getUpdateSql(BitSet)}
+     */
+    @Builder.Default
+    @Getter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private final Map<BitSet, String> dynamicUpdateSql = new ConcurrentHashMap<>();
+    /**
+     * Selects by {@code IN} list of a column keyed by the column name, see {@link #getFindByColumnSql(String)}
+     */
+    @Builder.Default
+    @Getter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private final Map<String, NavigableMap<Integer, String>> findByColumnSql = new ConcurrentHashMap<>();
+    /**
+     * Inserts of several rows keyed by the number of rows, see {@link #getInsertSql(int)}
+     */
+    @Builder.Default
+    @Getter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private final Map<Integer, String> multiRowInsertSql = new ConcurrentHashMap<>();
+
+    public boolean isVersioned() {
+        return versionIndex >= 0;
+    }
+
+    /**
+     * @return version of the entity, {@code null} if the entity is not versioned
+     */
+    public Object getVersion(Object entity) {
+        return isVersioned() ? stateAccessors[versionIndex].get(entity) : null;
+    }
+
+    public void setVersion(Object entity, Object version) {
+        stateAccessors[versionIndex].set(entity, version);
+    }
+
+    /**
+     * Ids are matched by class in {@link EntityKey}, so an integral number of another type is converted
+     * to {@link #idType} when the value fits
+     *
+     * @return the id as an instance of {@link #idType}, or the given id if it is not converted
+     */
+    public Serializable toIdentifier(Serializable id) {
+        if (id == null || idType.isInstance(id)
+                || !(id instanceof Long || id instanceof Integer || id instanceof Short || id instanceof Byte)) {
+            return id;
+        }
+        long value = ((Number) id).longValue();
+        if (idType == Long.class) {
+            return value;
+        }
+        if (idType == Integer.class && value == (int) value) {
+            return (int) value;
+        }
+        if (idType == Short.class && value == (short) value) {
+            return (short) value;
+        }
+        return id;
+    }
+
+    public boolean hasAssociations() {
+        return references.length > 0 || collectionRoles.length > 0;
+    }
+
+    /**
+     * @return {@code OneToMany} property role or {@code null} if the property is not a {@code OneToMany} one
+     */
+    public CollectionRole getCollectionRole(String property) {
+        for (CollectionRole role : collectionRoles) {
+            if (role.getProperty().equals(property)) {
+                return role;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return select by {@code IN} list of the column ordered by id, keyed by the {@link #findByIdsSql} sizes
+     */
+    public NavigableMap<Integer, String> getFindByColumnSql(String columnName) {
+        return findByColumnSql.computeIfAbsent(columnName, ignored -> {
+            var sqlBySize = new TreeMap<Integer, String>();
+            for (int size : findByIdsSql.keySet()) {
+                String values = String.join(", ", Collections.nCopies(size, "?"));
+                sqlBySize.put(size, String.format("%s WHERE %s IN (%s) ORDER BY %s",
+                        selectSql, columnName, values, idColumnName));
+            }
+            return sqlBySize;
+        });
+    }
+
+    /**
+     * @param rows number of rows to insert
+     * @return {@link #insertSql} with the values list repeated for the given number of rows
+     */
+    public String getInsertSql(int rows) {
+        if (rows == 1) {
+            return insertSql;
+        }
+        return multiRowInsertSql.computeIfAbsent(rows, ignored -> {
+            String values = insertSql.substring(insertSql.lastIndexOf("VALUES") + "VALUES".length()).trim();
+            StringBuilder sql = new StringBuilder(insertSql);
+            for (int i = 1; i < rows; i++) {
+                sql.append(", ").append(values);
+            }
+            return sql.toString();
+        });
+    }
+
+    /**
+     * @return column of the entity property
+     * @throws IllegalArgumentException if the property is not persistent
+     */
+    public String getColumnName(String property) {
+        String columnName = propertyColumnNames.get(property);
+        if (columnName == null) {
+            throw new IllegalArgumentException(String.format("Entity %s has no property %s", type, property));
+        }
+        return columnName;
+    }
+
+    /**
+     * @return binder of the id or state column
+     */
+    public ColumnBinder getColumnBinder(String columnName) {
+        if (columnName.equals(idColumnName)) {
+            return idBinder;
+        }
+        for (int i = 0; i < stateColumnNames.length; i++) {
+            if (stateColumnNames[i].equals(columnName)) {
+                return stateBinders[i];
+            }
+        }
+        throw new IllegalArgumentException(String.format("Entity %s has no column %s", type, columnName));
+    }
+
+    /**
+     * @param columns indexes of {@link #stateColumnNames} to set
+     * @return update of the given columns by id and version, {@link #updateSql} when all columns are set
+     */
+    public String getUpdateSql(BitSet columns) {
+        if (columns.cardinality() == stateColumnNames.length) {
+            return updateSql;
+        }
+        String sql = dynamicUpdateSql.get(columns);
+        if (sql == null) {
+            StringBuilder setClause = new StringBuilder();
+            for (int i = columns.nextSetBit(0); i >= 0; i = columns.nextSetBit(i + 1)) {
+                setClause.append(setClause.length() == 0 ? "" : ", ").append(stateColumnNames[i]).append("=?");
+            }
+            sql = String.format("UPDATE %s SET %s WHERE %s=?", tableName, setClause, idColumnName);
+            if (isVersioned()) {
+                sql += String.format(" AND %s=?", stateColumnNames[versionIndex]);
+            }
+            dynamicUpdateSql.putIfAbsent((BitSet) columns.clone(), sql);
+        }
+        return sql;
+    }
 }
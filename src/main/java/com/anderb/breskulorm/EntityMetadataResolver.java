@@ -1,15 +1,48 @@
 package com.anderb.breskulorm;
 
+import com.anderb.breskulorm.accessor.LambdaPropertyAccessor;
+import com.anderb.breskulorm.accessor.PropertyAccessor;
+import com.anderb.breskulorm.accessor.ReferenceAccessor;
+import com.anderb.breskulorm.association.CollectionRole;
+import com.anderb.breskulorm.association.Reference;
+import com.anderb.breskulorm.annotation.Cacheable;
 import com.anderb.breskulorm.annotation.Column;
+import com.anderb.breskulorm.annotation.Convert;
+import com.anderb.breskulorm.annotation.Entity;
 import com.anderb.breskulorm.annotation.GenerationType;
 import com.anderb.breskulorm.annotation.Id;
+import com.anderb.breskulorm.annotation.ManyToOne;
+import com.anderb.breskulorm.annotation.OneToMany;
 import com.anderb.breskulorm.annotation.Table;
+import com.anderb.breskulorm.annotation.Version;
+import com.anderb.breskulorm.convert.AttributeConverter;
 import com.anderb.breskulorm.exception.OrmException;
+import com.anderb.breskulorm.mapper.ColumnBinder;
+import com.anderb.breskulorm.mapper.ColumnBinders;
+import com.anderb.breskulorm.mapper.ColumnReader;
+import com.anderb.breskulorm.mapper.ColumnReaders;
+import com.anderb.breskulorm.mapper.DirtyTracker;
+import com.anderb.breskulorm.mapper.GeneratedEntityMapper;
+import com.anderb.breskulorm.mapper.ReflectiveEntityMapper;
 
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Field;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDateTime;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
 
 import static com.anderb.breskulorm.annotation.GenerationType.IDENTITY;
 import static java.util.Comparator.comparing;
@@ -19,42 +52,160 @@ import static java.util.stream.Collectors.toMap;
 
 public class EntityMetadataResolver {
 
-    private final Map<Class<?>, EntityMetadata> metadataMap;
+    /**
+     * Padded {@code IN} list sizes of multi-id selects, keeping the number of distinct statements low
+     */
+    private static final int[] ID_CHUNK_SIZES = {1, 4, 16, 64, 256};
+    private static final Set<Class<?>> SUPPORTED_VERSION_TYPES = Set.of(
+            Long.class, Integer.class, Short.class, Instant.class, LocalDateTime.class, Timestamp.class);
+
+    private final Map<Class<?>, EntityMetadata> metadataMap = new ConcurrentHashMap<>();
     private final EntityPersister entityPersister = new EntityPersister();
 
     public EntityMetadataResolver(Class<?>... entityClasses) {
-        metadataMap = Arrays.stream(entityClasses)
-                .collect(toMap(identity(), this::generateEntityMetadata));
+        register(Arrays.asList(entityClasses));
+    }
+
+    /**
+     * Resolve metadata of the given entity types in parallel
+     */
+    public void register(Collection<Class<?>> entityClasses) {
+        entityClasses.parallelStream().forEach(this::resolve);
     }
 
+    /**
+     * @return metadata of a registered entity type, {@link Entity} types are registered on first use
+     * and generated change tracking subclasses resolve to their entity type
+     */
     public EntityMetadata getEntityMetadata(Class<?> entityType) {
-        if (metadataMap.containsKey(entityType)) {
-            return metadataMap.get(entityType);
+        EntityMetadata metadata = metadataMap.get(entityType);
+        if (metadata != null) {
+            return metadata;
+        }
+        if (entityType.isAnnotationPresent(Entity.class)) {
+            return resolve(entityType);
+        }
+        if (DirtyTracker.class.isAssignableFrom(entityType) && entityType.getSuperclass() != null) {
+            return getEntityMetadata(entityType.getSuperclass());
         }
         throw new OrmException("EntityMetadata does not exist for type " + entityType);
     }
 
+    private EntityMetadata resolve(Class<?> entityType) {
+        return metadataMap.computeIfAbsent(entityType, this::generateEntityMetadata);
+    }
+
     public EntityMetadata generateEntityMetadata(Class<?> entityClass) {
+        GeneratedEntityMapper<Object> generatedMapper = findGeneratedMapper(entityClass);
+        if (generatedMapper != null && isSupportedByGeneratedMapper(entityClass)) {
+            return generateEntityMetadata(generatedMapper);
+        }
         var fields = getEntityFields(entityClass);
         String idColumnName = getIdColumnName(fields);
         Field idField = getIdField(fields, entityClass);
-        GenerationType idGenerationType = getIdGenerationType(idField);
+        Id id = idField.getAnnotation(Id.class);
+        GenerationType idGenerationType = id.generatedValue();
+        String tableName = getTableName(entityClass);
+        String[] stateColumnNames = getStateColumnNames(fields, idColumnName);
+        int versionIndex = getVersionIndex(fields, stateColumnNames);
+        String versionCondition = versionIndex < 0 ? "" : String.format(" AND %s=?", stateColumnNames[versionIndex]);
+        LinkedHashMap<String, PropertyAccessor> accessors = getAccessors(fields);
+        PropertyAccessor idAccessor = accessors.get(idColumnName);
+        PropertyAccessor[] stateAccessors = getStateAccessors(accessors, idColumnName);
+        Field[] stateFields = Arrays.stream(stateColumnNames).map(fields::get).toArray(Field[]::new);
+        Class<?>[] stateTypes = Arrays.stream(stateFields).map(this::getStateType).toArray(Class<?>[]::new);
+        AttributeConverter<?, ?>[] converters = getConverters(stateFields);
+        ColumnReader[] columnReaders = getColumnReaders(idField, stateFields, stateTypes, stateAccessors, converters);
+        ColumnBinder[] stateBinders = getStateBinders(stateTypes, converters);
+        String selectSql = getSelectSql(tableName, idColumnName, stateColumnNames);
         return EntityMetadata
                 .builder()
                 .type(entityClass)
                 .idColumnName(idColumnName)
-                .tableName(getTableName(entityClass))
+                .tableName(tableName)
+                .stateColumnNames(stateColumnNames)
+                .stateTypes(stateTypes)
+                .propertyColumnNames(getPropertyColumnNames(fields))
                 .fields(fields)
                 .idField(idField)
-                .updateSetValueSql(getUpdateSetValue(fields, idColumnName))
-                .insertSetValueSql(getInsertSetValue(fields, idColumnName, idGenerationType == IDENTITY))
+                .idType(MethodType.methodType(idField.getType()).wrap().returnType())
+                .accessors(accessors)
+                .idAccessor(idAccessor)
+                .stateAccessors(stateAccessors)
+                .columnReaders(columnReaders)
+                .idBinder(ColumnBinders.of(idField.getType()))
+                .stateBinders(stateBinders)
+                .mapper(new ReflectiveEntityMapper(entityClass, columnReaders, stateBinders, idAccessor, stateAccessors))
+                .selectSql(selectSql)
+                .findByIdSql(getFindByIdSql(selectSql, idColumnName))
+                .findByIdsSql(getFindByIdsSql(selectSql, idColumnName))
+                .insertSql(getInsertSql(tableName, fields, idColumnName, idGenerationType == IDENTITY))
+                .updateSql(getUpdateSql(tableName, fields, idColumnName) + versionCondition)
+                .deleteSql(getDeleteSql(tableName, idColumnName) + versionCondition)
+                .versionIndex(versionIndex)
                 .persister(entityPersister)
                 .idGenerationType(idGenerationType)
+                .sequenceName(id.sequenceName())
+                .allocationSize(id.allocationSize())
+                .cacheable(entityClass.getAnnotation(Cacheable.class))
+                .references(getReferences(fields))
+                .collectionRoles(getCollectionRoles(entityClass))
+                .build();
+    }
+
+    /**
+     * Mappers generated before associations and versions were rejected by the processor may still be on
+     * the classpath, such entities are mapped by reflection
+     */
+    private boolean isSupportedByGeneratedMapper(Class<?> entityClass) {
+        return Arrays.stream(entityClass.getDeclaredFields())
+                .noneMatch(field -> isAssociation(field) || field.isAnnotationPresent(Version.class));
+    }
+
+    private EntityMetadata generateEntityMetadata(GeneratedEntityMapper<Object> mapper) {
+        return EntityMetadata
+                .builder()
+                .type(mapper.getEntityType())
+                .idColumnName(mapper.getIdColumnName())
+                .tableName(mapper.getTableName())
+                .stateColumnNames(mapper.getStateColumnNames())
+                .stateTypes(mapper.getStateColumnTypes())
+                .propertyColumnNames(getPropertyColumnNames(getEntityFields(mapper.getEntityType())))
+                .idType(MethodType.methodType(mapper.getIdType()).wrap().returnType())
+                .idBinder(ColumnBinders.of(mapper.getIdType()))
+                .stateBinders(Arrays.stream(mapper.getStateColumnTypes()).map(ColumnBinders::of).toArray(ColumnBinder[]::new))
+                .mapper(mapper)
+                .selectSql(mapper.getSelectSql())
+                .findByIdSql(mapper.getFindByIdSql())
+                .findByIdsSql(getFindByIdsSql(mapper.getSelectSql(), mapper.getIdColumnName()))
+                .insertSql(mapper.getInsertSql())
+                .updateSql(mapper.getUpdateSql())
+                .deleteSql(mapper.getDeleteSql())
+                .persister(entityPersister)
+                .idGenerationType(mapper.getIdGenerationType())
+                .sequenceName(mapper.getSequenceName())
+                .allocationSize(mapper.getAllocationSize())
+                .cacheable(mapper.getEntityType().getAnnotation(Cacheable.class))
                 .build();
     }
 
-    private GenerationType getIdGenerationType(Field idField) {
-        return idField.getAnnotation(Id.class).generatedValue();
+    @SuppressWarnings("unchecked")
+    private GeneratedEntityMapper<Object> findGeneratedMapper(Class<?> entityClass) {
+        Class<?> mapperClass;
+        try {
+            mapperClass = Class.forName(
+                    entityClass.getName() + GeneratedEntityMapper.SUFFIX, true, entityClass.getClassLoader());
+        } catch (ClassNotFoundException e) {
+            return null;
+        }
+        if (!GeneratedEntityMapper.class.isAssignableFrom(mapperClass)) {
+            return null;
+        }
+        try {
+            return (GeneratedEntityMapper<Object>) mapperClass.getDeclaredConstructor().newInstance();
+        } catch (Exception e) {
+            throw new OrmException("Cannot create generated mapper " + mapperClass, e);
+        }
     }
 
     private Field getIdField(LinkedHashMap<String, Field> fields, Class<?> type) {
@@ -70,7 +221,9 @@ public class EntityMetadataResolver {
 
     private LinkedHashMap<String, Field> getEntityFields(Class<?> type) {
         return Arrays.stream(type.getDeclaredFields())
-                .filter(field -> field.isAnnotationPresent(Id.class) || field.isAnnotationPresent(Column.class))
+                .filter(field -> field.isAnnotationPresent(Id.class)
+                        || field.isAnnotationPresent(Column.class)
+                        || field.isAnnotationPresent(ManyToOne.class))
                 .sorted(comparing(Field::getName))
                 .collect(toMap(
                         this::getColumnName,
@@ -81,6 +234,169 @@ public class EntityMetadataResolver {
                         LinkedHashMap::new));
     }
 
+    private Map<String, String> getPropertyColumnNames(LinkedHashMap<String, Field> fields) {
+        var propertyColumnNames = new HashMap<String, String>(fields.size() * 2);
+        fields.forEach((columnName, field) -> propertyColumnNames.put(field.getName(), columnName));
+        return propertyColumnNames;
+    }
+
+    /**
+     * @return accessors keyed by column name, {@link ManyToOne} properties are accessed by the referenced id
+     */
+    private LinkedHashMap<String, PropertyAccessor> getAccessors(LinkedHashMap<String, Field> fields) {
+        var accessors = new LinkedHashMap<String, PropertyAccessor>(fields.size());
+        fields.forEach((columnName, field) -> accessors.put(columnName, field.isAnnotationPresent(ManyToOne.class)
+                ? new ReferenceAccessor(LambdaPropertyAccessor.of(field),
+                        () -> getEntityMetadata(field.getType()).getMapper())
+                : LambdaPropertyAccessor.of(field)));
+        return accessors;
+    }
+
+    /**
+     * @return type of the state value of the field, the referenced id type for {@link ManyToOne} fields
+     */
+    private Class<?> getStateType(Field field) {
+        if (!field.isAnnotationPresent(ManyToOne.class)) {
+            return field.getType();
+        }
+        Class<?> targetType = field.getType();
+        Class<?> idType = getIdField(getEntityFields(targetType), targetType).getType();
+        return MethodType.methodType(idType).wrap().returnType();
+    }
+
+    /**
+     * @return readers of the id column followed by the state columns, the column order of the select SQL
+     */
+    private ColumnReader[] getColumnReaders(Field idField,
+                                           Field[] stateFields,
+                                           Class<?>[] stateTypes,
+                                           PropertyAccessor[] stateAccessors,
+                                           AttributeConverter<?, ?>[] converters) {
+        ColumnReader[] columnReaders = new ColumnReader[stateFields.length + 1];
+        columnReaders[0] = ColumnReaders.of(idField);
+        for (int i = 0; i < stateFields.length; i++) {
+            if (stateFields[i].isAnnotationPresent(ManyToOne.class)) {
+                columnReaders[i + 1] = ColumnReaders.of(stateAccessors[i], stateTypes[i]);
+            } else if (converters[i] == null) {
+                columnReaders[i + 1] = ColumnReaders.of(stateFields[i]);
+            } else {
+                Class<?> columnType = getConverterColumnType(converters[i]);
+                columnReaders[i + 1] = ColumnReaders.converting(stateFields[i], converters[i], columnType);
+            }
+        }
+        return columnReaders;
+    }
+
+    private ColumnBinder[] getStateBinders(Class<?>[] stateTypes, AttributeConverter<?, ?>[] converters) {
+        ColumnBinder[] binders = new ColumnBinder[stateTypes.length];
+        for (int i = 0; i < stateTypes.length; i++) {
+            binders[i] = converters[i] == null
+                    ? ColumnBinders.of(stateTypes[i])
+                    : ColumnBinders.converting(converters[i], getConverterColumnType(converters[i]));
+        }
+        return binders;
+    }
+
+    private Reference[] getReferences(LinkedHashMap<String, Field> fields) {
+        return fields.values()
+                .stream()
+                .filter(field -> field.isAnnotationPresent(ManyToOne.class))
+                .map(field -> new Reference(field.getName(), field.getType(), LambdaPropertyAccessor.of(field)))
+                .toArray(Reference[]::new);
+    }
+
+    private CollectionRole[] getCollectionRoles(Class<?> entityClass) {
+        return Arrays.stream(entityClass.getDeclaredFields())
+                .filter(field -> field.isAnnotationPresent(OneToMany.class))
+                .sorted(comparing(Field::getName))
+                .map(field -> {
+                    OneToMany oneToMany = field.getAnnotation(OneToMany.class);
+                    return new CollectionRole(
+                            entityClass,
+                            field.getName(),
+                            getListElementType(field),
+                            oneToMany.mappedBy(),
+                            oneToMany.batchSize(),
+                            LambdaPropertyAccessor.of(field));
+                })
+                .toArray(CollectionRole[]::new);
+    }
+
+    private Class<?> getListElementType(Field field) {
+        Type type = field.getGenericType();
+        if (field.getType().isAssignableFrom(List.class) && type instanceof ParameterizedType) {
+            Type elementType = ((ParameterizedType) type).getActualTypeArguments()[0];
+            if (elementType instanceof Class) {
+                return (Class<?>) elementType;
+            }
+        }
+        throw new OrmException("OneToMany field " + field + " must be a List of an entity type");
+    }
+
+    /**
+     * @return index of the {@link Version} column in the state columns, -1 if there is none
+     */
+    private int getVersionIndex(LinkedHashMap<String, Field> fields, String[] stateColumnNames) {
+        for (int i = 0; i < stateColumnNames.length; i++) {
+            Field field = fields.get(stateColumnNames[i]);
+            if (field.isAnnotationPresent(Version.class)) {
+                Class<?> type = MethodType.methodType(field.getType()).wrap().returnType();
+                if (!SUPPORTED_VERSION_TYPES.contains(type)) {
+                    throw new OrmException("Unsupported version type of field " + field);
+                }
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private boolean isAssociation(Field field) {
+        return field.isAnnotationPresent(ManyToOne.class) || field.isAnnotationPresent(OneToMany.class);
+    }
+
+    /**
+     * @return converters of the {@link Convert} fields, {@code null} for other fields
+     */
+    private AttributeConverter<?, ?>[] getConverters(Field[] fields) {
+        AttributeConverter<?, ?>[] converters = new AttributeConverter<?, ?>[fields.length];
+        for (int i = 0; i < fields.length; i++) {
+            Convert convert = fields[i].getAnnotation(Convert.class);
+            if (convert != null) {
+                try {
+                    converters[i] = convert.value().getDeclaredConstructor().newInstance();
+                } catch (Exception e) {
+                    throw new OrmException("Cannot create converter " + convert.value() + " of field " + fields[i], e);
+                }
+            }
+        }
+        return converters;
+    }
+
+    /**
+     * @return the {@code Y} type argument of the converter {@link AttributeConverter}, {@code Object} if unresolved
+     */
+    private Class<?> getConverterColumnType(AttributeConverter<?, ?> converter) {
+        for (Class<?> type = converter.getClass(); type != null; type = type.getSuperclass()) {
+            for (Type genericInterface : type.getGenericInterfaces()) {
+                if (genericInterface instanceof ParameterizedType
+                        && ((ParameterizedType) genericInterface).getRawType() == AttributeConverter.class) {
+                    Type columnType = ((ParameterizedType) genericInterface).getActualTypeArguments()[1];
+                    return columnType instanceof Class ? (Class<?>) columnType : Object.class;
+                }
+            }
+        }
+        return Object.class;
+    }
+
+    private PropertyAccessor[] getStateAccessors(LinkedHashMap<String, PropertyAccessor> accessors,
+                                                 String idColumnName) {
+        return accessors.entrySet()
+                .stream()
+                .filter(entry -> !entry.getKey().equals(idColumnName))
+                .map(Map.Entry::getValue)
+                .toArray(PropertyAccessor[]::new);
+    }
+
     private String getIdColumnName(LinkedHashMap<String, Field> fields) {
         return fields.entrySet().stream()
                 .filter(entry -> entry.getValue().isAnnotationPresent(Id.class))
@@ -90,6 +406,9 @@ public class EntityMetadataResolver {
     }
 
     private String getColumnName(Field field) {
+        if (field.isAnnotationPresent(ManyToOne.class)) {
+            return field.getAnnotation(ManyToOne.class).value();
+        }
         if (field.isAnnotationPresent(Id.class)) {
             Id id = field.getAnnotation(Id.class);
             if (id.value().isEmpty()) {
@@ -111,6 +430,52 @@ public class EntityMetadataResolver {
         throw new OrmException("Table annotation does not exists for entity: " + type);
     }
 
+    private String[] getStateColumnNames(LinkedHashMap<String, Field> fields, String idColumnName) {
+        return fields.keySet()
+                .stream()
+                .filter(columnName -> !columnName.equals(idColumnName))
+                .toArray(String[]::new);
+    }
+
+    private String getSelectSql(String tableName, String idColumnName, String[] stateColumnNames) {
+        String stateColumns = stateColumnNames.length == 0 ? "" : ", " + String.join(", ", stateColumnNames);
+        return String.format("SELECT %s%s FROM %s", idColumnName, stateColumns, tableName);
+    }
+
+    private String getFindByIdSql(String selectSql, String idColumnName) {
+        return String.format("%s WHERE %s=?", selectSql, idColumnName);
+    }
+
+    private NavigableMap<Integer, String> getFindByIdsSql(String selectSql, String idColumnName) {
+        var findByIdsSql = new TreeMap<Integer, String>();
+        for (int size : ID_CHUNK_SIZES) {
+            findByIdsSql.put(size, String.format("%s WHERE %s IN (%s)", selectSql, idColumnName, getValuesSigns(size)));
+        }
+        return findByIdsSql;
+    }
+
+    private String getInsertSql(String tableName,
+                                LinkedHashMap<String, Field> fields,
+                                String idColumnName,
+                                boolean excludeId) {
+        String columns = getInsertSetValue(fields, idColumnName, excludeId);
+        int valuesSize = excludeId ? fields.size() - 1 : fields.size();
+        return String.format("INSERT INTO %s(%s) VALUES(%s)", tableName, columns, getValuesSigns(valuesSize));
+    }
+
+    private String getUpdateSql(String tableName, LinkedHashMap<String, Field> fields, String idColumnName) {
+        return String.format(
+                "UPDATE %s SET %s WHERE %s=?",
+                tableName,
+                getUpdateSetValue(fields, idColumnName),
+                idColumnName
+        );
+    }
+
+    private String getDeleteSql(String tableName, String idColumnName) {
+        return String.format("DELETE FROM %s WHERE %s=?", tableName, idColumnName);
+    }
+
     private String getUpdateSetValue(LinkedHashMap<String, Field> fields, String idColumnName) {
         return fields.keySet()
                 .stream()
@@ -129,4 +494,8 @@ public class EntityMetadataResolver {
         return valuesWithoutId + ", " + idColumnName;
     }
 
+    private String getValuesSigns(int valuesSize) {
+        return String.join(", ", Collections.nCopies(valuesSize, "?"));
+    }
+
 }
@@ -1,60 +1,194 @@
 package com.anderb.breskulorm;
 
 import com.anderb.breskulorm.exception.OrmException;
+import com.anderb.breskulorm.exception.StaleStateException;
+import com.anderb.breskulorm.id.PooledSequenceGenerator;
+import com.anderb.breskulorm.mapper.ColumnBinder;
+import com.anderb.breskulorm.query.QueryPlan;
+import com.anderb.breskulorm.stat.StatementListener;
+import com.anderb.breskulorm.stat.Statistics;
 
 import java.io.Serializable;
-import java.lang.reflect.Field;
-import java.sql.*;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
 import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import static com.anderb.breskulorm.annotation.GenerationType.IDENTITY;
-import static java.sql.Statement.RETURN_GENERATED_KEYS;
 
 public class EntityPersister {
 
     public static final Serializable POST_INSERT_INDICATOR = new Serializable() {
     };
+    /**
+     * Row counts of multi-row inserts, larger first, so each entity type needs at most four insert statements
+     */
+    private static final int[] MULTI_ROW_INSERT_SIZES = {64, 16, 4, 1};
 
     public Serializable getIdValue(Object instance, EntityMetadata metadata) {
+        return metadata.getMapper().getId(instance);
+    }
+
+    public Object loadFromDatasource(EntityKey key, SharedSession session) {
         try {
-            Field idField = metadata.getIdField();
-            idField.setAccessible(true);
-            return (Serializable) idField.get(instance);
-        } catch (IllegalAccessException e) {
-            throw new OrmException("Error fetch entity id value", e);
+            EntityMetadata metadata = key.getMetadata();
+            PreparedStatement stm = prepareFindByIdStatement(session, key);
+            try (ResultSet resultSet = executeQuery(stm, metadata.getFindByIdSql(), 1, session)) {
+                Object entity = metadata.getPersister().mapToEntity(resultSet, metadata);
+                if (entity != null) {
+                    getStatistics(session).loaded(metadata.getType(), 1);
+                }
+                return entity;
+            }
+        } catch (Exception e) {
+            throw new OrmException("Cannot load entity from DB", e);
         }
     }
 
-    public Object loadFromDatasource(EntityKey key, Session session) {
+    /**
+     * Load entities by ids with {@code IN} queries. Ids are split into chunks of at most the largest
+     * {@link EntityMetadata#getFindByIdsSql()} size, each chunk padded with its last id up to the closest size.
+     *
+     * @return found entities in no particular order
+     */
+    public List<Object> loadFromDatasource(EntityMetadata metadata, List<Serializable> ids, SharedSession session) {
+        return loadFromDatasource(metadata, metadata.getFindByIdsSql(), metadata.getIdBinder(), ids, session);
+    }
+
+    /**
+     * Load entities by values of a column with {@code IN} queries, chunked and padded like ids are
+     *
+     * @param sqlBySize select by {@code IN} list of the column keyed by the number of parameters
+     * @return found entities in the order of the select
+     */
+    public List<Object> loadFromDatasource(EntityMetadata metadata,
+                                           NavigableMap<Integer, String> sqlBySize,
+                                           ColumnBinder binder,
+                                           List<Serializable> values,
+                                           SharedSession session) {
+        int maxChunkSize = sqlBySize.lastKey();
+        List<Object> entities = new ArrayList<>(values.size());
         try {
-            PreparedStatement stm = prepareFindByIdStatement(session.getConnection(), key);
-            ResultSet resultSet = stm.executeQuery();
-            return key.getMetadata().getPersister().mapToEntity(resultSet, key.getMetadata());
+            for (int from = 0; from < values.size(); from += maxChunkSize) {
+                List<Serializable> chunk = values.subList(from, Math.min(from + maxChunkSize, values.size()));
+                Map.Entry<Integer, String> paddedSql = sqlBySize.ceilingEntry(chunk.size());
+                PreparedStatement stm = session.getStatementCache().prepare(paddedSql.getValue());
+                for (int i = 0; i < paddedSql.getKey(); i++) {
+                    binder.bind(stm, i + 1, chunk.get(Math.min(i, chunk.size() - 1)));
+                }
+                try (ResultSet resultSet = executeQuery(stm, paddedSql.getValue(), paddedSql.getKey(), session)) {
+                    while (resultSet.next()) {
+                        entities.add(metadata.getMapper().hydrate(resultSet));
+                    }
+                }
+            }
         } catch (Exception e) {
-            throw new OrmException("Cannot load entity from DB", e);
+            throw new OrmException("Cannot load entities from DB", e);
+        }
+        getStatistics(session).loaded(metadata.getType(), entities.size());
+        return entities;
+    }
+
+    /**
+     * Execute a compiled query
+     *
+     * @param parameters values of the plan parameters
+     * @return found entities in the query order
+     */
+    public List<Object> list(QueryPlan plan, Object[] parameters, SharedSession session) {
+        EntityMetadata metadata = plan.getMetadata();
+        List<Object> entities = new ArrayList<>();
+        try {
+            PreparedStatement stm = session.getStatementCache().prepare(plan.getSql());
+            plan.bind(stm, parameters);
+            try (ResultSet resultSet = executeQuery(stm, plan.getSql(), parameters.length, session)) {
+                while (resultSet.next()) {
+                    entities.add(metadata.getMapper().hydrate(resultSet));
+                }
+            }
+        } catch (Exception e) {
+            throw new OrmException("Cannot execute query " + plan.getSql(), e);
         }
+        getStatistics(session).loaded(metadata.getType(), entities.size());
+        return entities;
     }
 
-    public void update(EntityKey key, Object instance, Session session) {
+    /**
+     * Open a forward-only, read-only cursor over the entities matching the where clause.
+     * Rows are hydrated one by one while the stream is consumed, the statement is closed
+     * when the stream is closed or the cursor is exhausted.
+     *
+     * @param whereSql where clause without the {@code WHERE} keyword, blank to select all rows
+     */
+    public Stream<Object> stream(EntityMetadata metadata, String whereSql, Object[] params, SharedSession session) {
+        String sql = whereSql == null || whereSql.isBlank()
+                ? metadata.getSelectSql()
+                : metadata.getSelectSql() + " WHERE " + whereSql;
+        PreparedStatement stm = null;
         try {
-            PreparedStatement stm = prepareUpdateStatement(session, key, instance);
-            int rowsUpdated = stm.executeUpdate();
+            stm = session.getConnection().prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            stm.setFetchSize(session.getSessionFactory().getConfigs().getStreamFetchSize());
+            for (int i = 0; i < params.length; i++) {
+                stm.setObject(i + 1, params[i]);
+            }
+            ResultSet resultSet = executeQuery(stm, sql, params.length, session);
+            var cursor = new Cursor(metadata, stm, resultSet);
+            return StreamSupport.stream(cursor, false).onClose(cursor::close);
+        } catch (Exception e) {
+            closeQuietly(stm);
+            throw new OrmException("Cannot open cursor for " + sql, e);
+        }
+    }
+
+    /**
+     * Update the given state columns of the entity
+     *
+     * @param state   current entity state as returned by {@link Session#toSnapshot}, the version of a versioned
+     *                entity is replaced with the next version
+     * @param columns indexes of the state columns to write, the version column is always written
+     * @throws StaleStateException if the versioned row was changed since the entity was read
+     */
+    public void update(EntityKey key, Object[] state, BitSet columns, SharedSession session) {
+        try {
+            EntityMetadata metadata = key.getMetadata();
+            BitSet updatedColumns = withVersion(metadata, columns);
+            String sql = metadata.getUpdateSql(updatedColumns);
+            PreparedStatement stm = session.getStatementCache().prepare(sql);
+            Object version = incrementVersion(key, state);
+            int parameterCount = bindUpdateParameters(stm, key, state, updatedColumns, version);
+            int rowsUpdated = executeUpdate(stm, sql, parameterCount, session);
             if (rowsUpdated != 1) {
-                throw new OrmException("Cannot update entity " + key);
+                throw rowNotFound(key, "update");
             }
+            getStatistics(session).updated(metadata.getType(), 1);
+        } catch (OrmException e) {
+            throw e;
         } catch (Exception e) {
             throw new OrmException("Error", e);
         }
     }
 
-    public Serializable insert(EntityKey key, Object instance, Session session) {
+    public Serializable insert(EntityKey key, Object instance, SharedSession session) {
         try {
             EntityMetadata metadata = key.getMetadata();
             PreparedStatement stm = prepareInsertStatement(session, key, instance);
-            int rowsUpdated = stm.executeUpdate();
+            int rowsUpdated = executeUpdate(stm, metadata.getInsertSql(), getInsertParameterCount(key), session);
             if (rowsUpdated != 1) {
                 throw new OrmException("Cannot insert entity " + metadata + ". No rows affected.");
             }
+            getStatistics(session).inserted(metadata.getType(), 1);
+            if (key.getIdentifier() != null) {
+                return key.getIdentifier();
+            }
             try (ResultSet generatedKeys = stm.getGeneratedKeys()) {
                 if (generatedKeys.next()) {
                     Serializable newId = (Serializable) generatedKeys.getObject(1);
@@ -69,132 +203,405 @@ public class EntityPersister {
         }
     }
 
-    public void delete(EntityKey key, Session session) {
+    /**
+     * Insert entities with database generated ids using multi-row inserts and assign the generated ids.
+     * Instances are split into chunks of {@link #MULTI_ROW_INSERT_SIZES} rows.
+     *
+     * @return generated ids in the order of the instances
+     */
+    public List<Serializable> insertMultiRow(EntityMetadata metadata, List<Object> instances, SharedSession session) {
+        List<Serializable> ids = new ArrayList<>(instances.size());
+        int parametersPerRow = metadata.getStateColumnNames().length;
+        try {
+            int from = 0;
+            while (from < instances.size()) {
+                int rows = getMultiRowInsertSize(instances.size() - from);
+                String sql = metadata.getInsertSql(rows);
+                PreparedStatement stm = session.getStatementCache().prepare(sql, true);
+                int parameterIndex = 1;
+                for (int i = from; i < from + rows; i++) {
+                    parameterIndex = metadata.getMapper().bindState(stm, instances.get(i), parameterIndex);
+                }
+                int rowsInserted = executeUpdate(stm, sql, rows * parametersPerRow, session);
+                if (rowsInserted != rows) {
+                    throw new OrmException(String.format("Cannot insert %d entities %s. %d rows affected.",
+                            rows, metadata.getType(), rowsInserted));
+                }
+                try (ResultSet generatedKeys = stm.getGeneratedKeys()) {
+                    for (int i = from; i < from + rows; i++) {
+                        if (!generatedKeys.next()) {
+                            throw new OrmException("No ID obtained for inserted " + metadata.getType());
+                        }
+                        Serializable id = (Serializable) generatedKeys.getObject(1);
+                        setIdentifier(metadata, instances.get(i), id);
+                        ids.add(id);
+                    }
+                }
+                from += rows;
+            }
+        } catch (OrmException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new OrmException("Cannot execute multi-row insert for " + metadata.getType(), e);
+        }
+        getStatistics(session).inserted(metadata.getType(), instances.size());
+        return ids;
+    }
+
+    /**
+     * @param instance deleted entity, its version must match the row version of a versioned entity
+     * @throws StaleStateException if the versioned row was changed since the entity was read
+     */
+    public void delete(EntityKey key, Object instance, SharedSession session) {
         try {
-            PreparedStatement stm = prepareDeleteStatement(session.getConnection(), key);
-            int rowsUpdated = stm.executeUpdate();
+            PreparedStatement stm = prepareDeleteStatement(session, key, instance);
+            int parameterCount = key.getMetadata().isVersioned() ? 2 : 1;
+            int rowsUpdated = executeUpdate(stm, key.getMetadata().getDeleteSql(), parameterCount, session);
             if (rowsUpdated != 1) {
-                throw new OrmException("Cannot insert entity " + key);
+                throw rowNotFound(key, "delete");
             }
-            session.getPersistenceContext().remove(key);
-            session.getSnapshots().remove(key);
+            getStatistics(session).deleted(key.getMetadata().getType(), 1);
+        } catch (OrmException e) {
+            throw e;
         } catch (Exception e) {
             throw new OrmException("Error", e);
         }
     }
 
-    public void setIdentifier(EntityMetadata metadata, Object instance, Serializable value) {
-        Field idField = metadata.getIdField();
-        setValueToField(idField, instance, value);
+    public void insertBatch(List<EntityKey> keys, List<Object> instances, SharedSession session) {
+        EntityMetadata metadata = keys.get(0).getMetadata();
+        try {
+            PreparedStatement stm = session.getStatementCache().prepare(metadata.getInsertSql());
+            stm.clearBatch();
+            for (int i = 0; i < keys.size(); i++) {
+                bindInsertParameters(stm, keys.get(i), instances.get(i));
+                stm.addBatch();
+            }
+            int parameterCount = getInsertParameterCount(keys.get(0)) * keys.size();
+            checkBatchRowCounts(executeBatch(stm, metadata.getInsertSql(), parameterCount, session), keys, "insert");
+            getStatistics(session).inserted(metadata.getType(), keys.size());
+        } catch (OrmException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new OrmException("Cannot execute insert batch for " + metadata.getType(), e);
+        }
+    }
+
+    /**
+     * Update the same state columns of several entities of one type in a single JDBC batch. Versioned entities
+     * are updated one by one unless {@link SessionFactoryConfigs#isBatchVersionedData()}.
+     */
+    public void updateBatch(List<EntityKey> keys, List<Object[]> states, BitSet columns, SharedSession session) {
+        EntityMetadata metadata = keys.get(0).getMetadata();
+        if (!isBatchable(metadata, session)) {
+            for (int i = 0; i < keys.size(); i++) {
+                update(keys.get(i), states.get(i), columns, session);
+            }
+            return;
+        }
+        try {
+            BitSet updatedColumns = withVersion(metadata, columns);
+            String sql = metadata.getUpdateSql(updatedColumns);
+            PreparedStatement stm = session.getStatementCache().prepare(sql);
+            stm.clearBatch();
+            int parameterCount = 0;
+            for (int i = 0; i < keys.size(); i++) {
+                Object version = incrementVersion(keys.get(i), states.get(i));
+                parameterCount += bindUpdateParameters(stm, keys.get(i), states.get(i), updatedColumns, version);
+                stm.addBatch();
+            }
+            checkBatchRowCounts(executeBatch(stm, sql, parameterCount, session), keys, "update");
+            getStatistics(session).updated(metadata.getType(), keys.size());
+        } catch (OrmException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new OrmException("Cannot execute update batch for " + metadata.getType(), e);
+        }
     }
 
-    public void setValueToField(Field field, Object instance, Object value) {
+    /**
+     * Delete several entities of one type in a single JDBC batch. Versioned entities are deleted one by one
+     * unless {@link SessionFactoryConfigs#isBatchVersionedData()}.
+     */
+    public void deleteBatch(List<EntityKey> keys, List<Object> instances, SharedSession session) {
+        EntityMetadata metadata = keys.get(0).getMetadata();
+        if (!isBatchable(metadata, session)) {
+            for (int i = 0; i < keys.size(); i++) {
+                delete(keys.get(i), instances.get(i), session);
+            }
+            return;
+        }
         try {
-            field.setAccessible(true);
-            field.set(instance, value);
-        } catch (IllegalAccessException e) {
-            throw new OrmException("Cannot set value to field", e);
+            PreparedStatement stm = session.getStatementCache().prepare(metadata.getDeleteSql());
+            stm.clearBatch();
+            for (int i = 0; i < keys.size(); i++) {
+                bindDeleteParameters(stm, keys.get(i), instances.get(i));
+                stm.addBatch();
+            }
+            int parameterCount = keys.size() * (metadata.isVersioned() ? 2 : 1);
+            checkBatchRowCounts(executeBatch(stm, metadata.getDeleteSql(), parameterCount, session), keys, "delete");
+            getStatistics(session).deleted(metadata.getType(), keys.size());
+        } catch (OrmException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new OrmException("Cannot execute delete batch for " + metadata.getType(), e);
         }
     }
 
+    /**
+     * Set the initial version of a versioned entity without a version, before the entity is inserted
+     */
+    public void seedVersion(EntityMetadata metadata, Object instance) {
+        if (metadata.isVersioned() && metadata.getVersion(instance) == null) {
+            metadata.setVersion(instance, Versions.initial(metadata.getStateTypes()[metadata.getVersionIndex()]));
+        }
+    }
+
+    public void setIdentifier(EntityMetadata metadata, Object instance, Serializable value) {
+        metadata.getMapper().setId(instance, value);
+    }
+
     public <T> T mapToEntity(ResultSet resultSet, EntityMetadata metadata) throws Exception {
         if (!resultSet.next()) {
             return null;
         }
-        T instance = (T) metadata.getType().getDeclaredConstructor().newInstance();
-        for (Map.Entry<String, Field> entry : metadata.getFields().entrySet()) {
-            setValueToField(entry.getValue(), instance, resultSet.getObject(entry.getKey()));
-        }
-        return instance;
+        return (T) metadata.getMapper().hydrate(resultSet);
     }
 
-    public Serializable generateIdentifier(EntityMetadata entityMetadata, Session session) {
+    public Serializable generateIdentifier(EntityMetadata entityMetadata, SharedSession session) {
         if (entityMetadata.getIdGenerationType() == IDENTITY) {
             return POST_INSERT_INDICATOR;
         }
-        return callNextSequenceValue(session);
+        PooledSequenceGenerator generator = session.getSessionFactory().getSequenceGenerator(entityMetadata);
+        return generator.generate(() -> callNextSequenceValue(generator.getNextValueSql(), session));
     }
 
-    private PreparedStatement prepareDeleteStatement(Connection connection, EntityKey key)
+    private PreparedStatement prepareDeleteStatement(SharedSession session, EntityKey key, Object instance)
             throws SQLException {
+        PreparedStatement stm = session.getStatementCache().prepare(key.getMetadata().getDeleteSql());
+        bindDeleteParameters(stm, key, instance);
+        return stm;
+    }
+
+    private void bindDeleteParameters(PreparedStatement stm, EntityKey key, Object instance) throws SQLException {
         EntityMetadata metadata = key.getMetadata();
-        String sql = String.format(
-                "DELETE FROM %s WHERE %s=?",
-                metadata.getTableName(),
-                metadata.getIdColumnName()
-        );
-        PreparedStatement stm = connection.prepareStatement(sql);
-        stm.setObject(1, key.getIdentifier());
+        metadata.getIdBinder().bind(stm, 1, key.getIdentifier());
+        if (metadata.isVersioned()) {
+            metadata.getStateBinders()[metadata.getVersionIndex()].bind(stm, 2, metadata.getVersion(instance));
+        }
+    }
+
+    private PreparedStatement prepareInsertStatement(SharedSession session, EntityKey key, Object instance)
+            throws SQLException {
+        boolean generatedId = key.getIdentifier() == null;
+        PreparedStatement stm = session.getStatementCache().prepare(key.getMetadata().getInsertSql(), generatedId);
+        bindInsertParameters(stm, key, instance);
         return stm;
     }
 
-    private PreparedStatement prepareInsertStatement(Session session, EntityKey key, Object instance)
+    private void bindInsertParameters(PreparedStatement stm, EntityKey key, Object instance)
             throws SQLException {
-        EntityMetadata metadata = key.getMetadata();
         Serializable id = key.getIdentifier();
-        Object[] currentState = session.toSnapshot(metadata, instance);
-        boolean includeId = id != null;
-        String sql = String.format(
-                "INSERT INTO %s(%s) VALUES(%s)",
-                metadata.getTableName(),
-                metadata.getInsertSetValueSql(),
-                getValuesSigns(metadata.getFields().values().size(), includeId)
-        );
-        PreparedStatement stm = session.getConnection().prepareStatement(sql, RETURN_GENERATED_KEYS);
-        int i = 1;
-        while (i <= currentState.length) {
-            stm.setObject(i, currentState[i - 1]);
-            i++;
-        }
-        if (includeId) {
-            stm.setObject(i, id);
+        int i = key.getMetadata().getMapper().bindState(stm, instance, 1);
+        if (id != null) {
+            key.getMetadata().getIdBinder().bind(stm, i, id);
         }
-        return stm;
     }
 
-    private String getValuesSigns(int valuesSize, boolean includeIdField) {
-        int questionNumber = includeIdField ? valuesSize : valuesSize - 1;
-        return "?, ".repeat(questionNumber).substring(0, 3 * questionNumber - 2);
+    /**
+     * @param version version the row is expected to have, ignored for entities that are not versioned
+     * @return number of bound parameters
+     */
+    private int bindUpdateParameters(PreparedStatement stm, EntityKey key, Object[] state, BitSet columns,
+                                     Object version) throws SQLException {
+        EntityMetadata metadata = key.getMetadata();
+        ColumnBinder[] stateBinders = metadata.getStateBinders();
+        int parameterIndex = 1;
+        for (int i = columns.nextSetBit(0); i >= 0; i = columns.nextSetBit(i + 1)) {
+            stateBinders[i].bind(stm, parameterIndex++, state[i]);
+        }
+        metadata.getIdBinder().bind(stm, parameterIndex, key.getIdentifier());
+        if (metadata.isVersioned()) {
+            stateBinders[metadata.getVersionIndex()].bind(stm, ++parameterIndex, version);
+        }
+        return parameterIndex;
     }
 
-    private PreparedStatement prepareUpdateStatement(Session session,
-                                                     EntityKey key,
-                                                     Object instance) throws SQLException {
+    /**
+     * @return the columns with the version column of a versioned entity
+     */
+    private static BitSet withVersion(EntityMetadata metadata, BitSet columns) {
+        if (!metadata.isVersioned() || columns.get(metadata.getVersionIndex())) {
+            return columns;
+        }
+        BitSet updatedColumns = (BitSet) columns.clone();
+        updatedColumns.set(metadata.getVersionIndex());
+        return updatedColumns;
+    }
+
+    /**
+     * Replace the version in the state with the next version
+     *
+     * @return the replaced version, {@code null} for entities that are not versioned
+     */
+    private static Object incrementVersion(EntityKey key, Object[] state) {
         EntityMetadata metadata = key.getMetadata();
-        Object[] currentState = session.toSnapshot(key.getMetadata(), instance);
-        String sql = String.format(
-                "UPDATE %s SET %s WHERE %s=?",
-                metadata.getTableName(),
-                metadata.getUpdateSetValueSql(),
-                metadata.getIdColumnName()
-        );
-        PreparedStatement stm = session.getConnection().prepareStatement(sql);
-        for (int i = 1; i <= currentState.length; i++) {
-            stm.setObject(i, currentState[i - 1]);
-        }
-        stm.setObject(currentState.length + 1, key.getIdentifier());
-        return stm;
+        if (!metadata.isVersioned()) {
+            return null;
+        }
+        int versionIndex = metadata.getVersionIndex();
+        Object version = state[versionIndex];
+        if (version == null) {
+            throw new OrmException("Version of entity " + key + " is null, versioned rows require a version");
+        }
+        state[versionIndex] = Versions.next(metadata.getStateTypes()[versionIndex], version);
+        return version;
+    }
+
+    private static OrmException rowNotFound(EntityKey key, String operation) {
+        if (key.getMetadata().isVersioned()) {
+            return new StaleStateException(key.getMetadata().getType(), key.getIdentifier());
+        }
+        return new OrmException(String.format("Cannot %s entity %s", operation, key));
+    }
+
+    private static int getMultiRowInsertSize(int remaining) {
+        for (int size : MULTI_ROW_INSERT_SIZES) {
+            if (size <= remaining) {
+                return size;
+            }
+        }
+        throw new IllegalArgumentException("No rows to insert");
     }
 
-    private PreparedStatement prepareFindByIdStatement(Connection connection, EntityKey key) throws SQLException {
-        PreparedStatement stm = connection.prepareStatement(
-                String.format(
-                        "SELECT * FROM %s WHERE %s=?",
-                        key.getMetadata().getTableName(),
-                        key.getMetadata().getIdColumnName()
-                )
-        );
-        stm.setObject(1, key.getIdentifier());
+    private int getInsertParameterCount(EntityKey key) {
+        return key.getMetadata().getStateColumnNames().length + (key.getIdentifier() == null ? 0 : 1);
+    }
+
+    private ResultSet executeQuery(PreparedStatement stm, String sql, int parameterCount, SharedSession session)
+            throws SQLException {
+        StatementListener listener = session.getSessionFactory().getStatementListener();
+        if (listener == null) {
+            return stm.executeQuery();
+        }
+        long start = System.nanoTime();
+        try {
+            return stm.executeQuery();
+        } finally {
+            listener.onStatement(sql, parameterCount, System.nanoTime() - start);
+        }
+    }
+
+    private int executeUpdate(PreparedStatement stm, String sql, int parameterCount, SharedSession session)
+            throws SQLException {
+        StatementListener listener = session.getSessionFactory().getStatementListener();
+        if (listener == null) {
+            return stm.executeUpdate();
+        }
+        long start = System.nanoTime();
+        try {
+            return stm.executeUpdate();
+        } finally {
+            listener.onStatement(sql, parameterCount, System.nanoTime() - start);
+        }
+    }
+
+    private int[] executeBatch(PreparedStatement stm, String sql, int parameterCount, SharedSession session)
+            throws SQLException {
+        StatementListener listener = session.getSessionFactory().getStatementListener();
+        if (listener == null) {
+            return stm.executeBatch();
+        }
+        long start = System.nanoTime();
+        try {
+            return stm.executeBatch();
+        } finally {
+            listener.onStatement(sql, parameterCount, System.nanoTime() - start);
+        }
+    }
+
+    private static Statistics getStatistics(SharedSession session) {
+        return session.getSessionFactory().getStatistics();
+    }
+
+    private static boolean isBatchable(EntityMetadata metadata, SharedSession session) {
+        return !metadata.isVersioned() || session.getSessionFactory().getConfigs().isBatchVersionedData();
+    }
+
+    /**
+     * Rows without a count pass for unversioned entities only, the version check of a versioned row
+     * is unverified then
+     */
+    private void checkBatchRowCounts(int[] rowCounts, List<EntityKey> keys, String operation) {
+        for (int i = 0; i < rowCounts.length; i++) {
+            if (rowCounts[i] == Statement.SUCCESS_NO_INFO && keys.get(i).getMetadata().isVersioned()) {
+                throw new OrmException(String.format("Cannot verify version of %s batch for %s as the driver "
+                                + "reported no row counts, disable batchVersionedData",
+                        operation, keys.get(i).getMetadata().getType()));
+            }
+            if (rowCounts[i] != 1 && rowCounts[i] != Statement.SUCCESS_NO_INFO) {
+                throw rowNotFound(keys.get(i), operation);
+            }
+        }
+    }
+
+    private PreparedStatement prepareFindByIdStatement(SharedSession session, EntityKey key) throws SQLException {
+        PreparedStatement stm = session.getStatementCache().prepare(key.getMetadata().getFindByIdSql());
+        key.getMetadata().getIdBinder().bind(stm, 1, key.getIdentifier());
         return stm;
     }
 
-    private Serializable callNextSequenceValue(Session session) {
+    private static void closeQuietly(Statement stm) {
+        if (stm != null) {
+            try {
+                stm.close();
+            } catch (SQLException ignored) {
+            }
+        }
+    }
+
+    /**
+     * Hydrates entities from an open result set on demand
+     */
+    private static class Cursor extends Spliterators.AbstractSpliterator<Object> {
+        private final EntityMetadata metadata;
+        private final Statement statement;
+        private final ResultSet resultSet;
+
+        Cursor(EntityMetadata metadata, Statement statement, ResultSet resultSet) {
+            super(Long.MAX_VALUE, ORDERED | NONNULL);
+            this.metadata = metadata;
+            this.statement = statement;
+            this.resultSet = resultSet;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super Object> action) {
+            try {
+                if (statement.isClosed() || !resultSet.next()) {
+                    close();
+                    return false;
+                }
+                action.accept(metadata.getMapper().hydrate(resultSet));
+                return true;
+            } catch (SQLException e) {
+                close();
+                throw new OrmException("Cannot read entity " + metadata.getType() + " from cursor", e);
+            }
+        }
+
+        void close() {
+            closeQuietly(statement);
+        }
+    }
+
+    private long callNextSequenceValue(String nextValueSql, SharedSession session) {
         try {
-            CallableStatement stm = session.getConnection()
-                    .prepareCall("call next value for orm_sequence");
-            ResultSet rs = stm.executeQuery();
-            if (rs.next()) {
-                return (Serializable) rs.getObject(1);
+            PreparedStatement stm = session.getStatementCache().prepare(nextValueSql);
+            try (ResultSet rs = executeQuery(stm, nextValueSql, 0, session)) {
+                if (rs.next()) {
+                    return rs.getLong(1);
+                }
             }
             throw new OrmException("Cannot get sequence next value. ResultSet is empty!");
         } catch (OrmException e) {
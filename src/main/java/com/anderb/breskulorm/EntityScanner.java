@@ -0,0 +1,102 @@
+package com.anderb.breskulorm;
+
+import com.anderb.breskulorm.annotation.Entity;
+import com.anderb.breskulorm.exception.OrmException;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.JarURLConnection;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Objects;
+import java.util.jar.JarFile;
+import java.util.stream.Stream;
+
+import static java.util.stream.Collectors.toList;
+
+/**
+ * Finds {@link Entity} classes of packages, including subpackages, in classpath directories and jars.
+ * Candidate classes are loaded in parallel without being initialized.
+ */
+public class EntityScanner {
+    private static final String CLASS_SUFFIX = ".class";
+
+    private final ClassLoader classLoader;
+
+    public EntityScanner(ClassLoader classLoader) {
+        this.classLoader = classLoader;
+    }
+
+    public List<Class<?>> scan(Collection<String> packageNames) {
+        List<String> classNames = new ArrayList<>();
+        for (String packageName : packageNames) {
+            classNames.addAll(findClassNames(packageName));
+        }
+        return classNames.parallelStream()
+                .distinct()
+                .map(this::loadClass)
+                .filter(Objects::nonNull)
+                .filter(type -> type.isAnnotationPresent(Entity.class))
+                .collect(toList());
+    }
+
+    private List<String> findClassNames(String packageName) {
+        String path = packageName.replace('.', '/');
+        List<String> classNames = new ArrayList<>();
+        try {
+            Enumeration<URL> resources = classLoader.getResources(path);
+            while (resources.hasMoreElements()) {
+                URL resource = resources.nextElement();
+                if ("jar".equals(resource.getProtocol())) {
+                    addJarClassNames(resource, path, classNames);
+                } else if ("file".equals(resource.getProtocol())) {
+                    addDirectoryClassNames(Paths.get(resource.toURI()), packageName, classNames);
+                }
+            }
+        } catch (IOException | UncheckedIOException | URISyntaxException e) {
+            throw new OrmException("Cannot scan package " + packageName, e);
+        }
+        return classNames;
+    }
+
+    private void addJarClassNames(URL resource, String path, List<String> classNames) throws IOException {
+        JarURLConnection connection = (JarURLConnection) resource.openConnection();
+        connection.setUseCaches(false);
+        try (JarFile jar = connection.getJarFile()) {
+            jar.stream()
+                    .map(entry -> entry.getName())
+                    .filter(name -> name.startsWith(path + "/") && name.endsWith(CLASS_SUFFIX))
+                    .map(name -> toClassName(name.replace('/', '.')))
+                    .forEach(classNames::add);
+        }
+    }
+
+    private void addDirectoryClassNames(Path directory, String packageName, List<String> classNames)
+            throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.filter(file -> file.toString().endsWith(CLASS_SUFFIX))
+                    .map(file -> directory.relativize(file).toString().replace(file.getFileSystem().getSeparator(), "."))
+                    .map(name -> toClassName(packageName + "." + name))
+                    .forEach(classNames::add);
+        }
+    }
+
+    private Class<?> loadClass(String className) {
+        try {
+            return Class.forName(className, false, classLoader);
+        } catch (ClassNotFoundException | LinkageError e) {
+            return null;
+        }
+    }
+
+    private static String toClassName(String fileName) {
+        return fileName.substring(0, fileName.length() - CLASS_SUFFIX.length());
+    }
+}
@@ -1,31 +1,83 @@
 package com.anderb.breskulorm;
 
+import com.anderb.breskulorm.accessor.PropertyAccessor;
 import com.anderb.breskulorm.action.*;
+import com.anderb.breskulorm.association.CollectionRole;
+import com.anderb.breskulorm.association.PersistentList;
+import com.anderb.breskulorm.association.Reference;
+import com.anderb.breskulorm.cache.CacheRegion;
+import com.anderb.breskulorm.cache.QueryResultCache;
+import com.anderb.breskulorm.cache.SecondLevelCache;
 import com.anderb.breskulorm.exception.OrmException;
+import com.anderb.breskulorm.mapper.DirtyTracker;
+import com.anderb.breskulorm.mapper.EntityMapper;
+import com.anderb.breskulorm.query.Query;
+import com.anderb.breskulorm.query.QueryPlan;
+import com.anderb.breskulorm.snapshot.SnapshotStore;
+import com.anderb.breskulorm.stat.Statistics;
 
 import java.io.Serializable;
 import java.sql.Connection;
 import java.sql.SQLException;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.*;
+import java.util.stream.Stream;
 
 import static com.anderb.breskulorm.EntityPersister.POST_INSERT_INDICATOR;
 
 
-public class Session implements AutoCloseable {
+public class Session implements SharedSession {
     private final Connection connection;
+    private final SessionFactory sessionFactory;
     private final EntityMetadataResolver metadataResolver;
     private final ActionQueue actionQueue;
+    private final StatementCache statementCache;
 
     private final Transaction transaction;
     private final Map<EntityKey, Object> persistenceContext = new HashMap<>();
-    private final Map<EntityKey, Object[]> snapshots = new HashMap<>();
-    private boolean readOnly;
+    /**
+     * Reverse index of {@link #persistenceContext} by entity instance identity
+     */
+    private final Map<Object, EntityKey> entityKeys = new IdentityHashMap<>();
+    /**
+     * Persisted entities with database generated ids waiting for their insert, not yet in {@link #persistenceContext}
+     */
+    private final Set<Object> pendingIdentityInserts = Collections.newSetFromMap(new IdentityHashMap<>());
+    private final SnapshotStore snapshots;
+    /**
+     * Keys of cacheable entities written in the current transaction, evicted from the second-level cache on commit
+     */
+    private final Set<EntityKey> pendingCacheEvictions = new HashSet<>();
+    /**
+     * Tables written in the current transaction, their query cache timestamps are bumped on commit
+     */
+    private final Set<String> pendingTableInvalidations = new HashSet<>();
+    /**
+     * Loaded entities with {@code ManyToOne} references to replace with managed entities
+     */
+    private final List<EntityKey> pendingReferences = new ArrayList<>();
+    private final Map<CollectionRole, Set<PersistentList<?>>> uninitializedCollections = new HashMap<>();
+    private final boolean readOnly;
     private boolean closed;
+    private int jdbcBatchSize;
 
-    public Session(Connection connection, EntityMetadataResolver metadataResolver) {
+    public Session(Connection connection, SessionFactory sessionFactory) {
+        this(connection, sessionFactory, false);
+    }
+
+    /**
+     * @param readOnly whether the session only reads, see {@link #isReadOnly()}
+     */
+    public Session(Connection connection, SessionFactory sessionFactory, boolean readOnly) {
         this.connection = connection;
-        this.metadataResolver = metadataResolver;
+        this.sessionFactory = sessionFactory;
+        this.readOnly = readOnly;
+        this.metadataResolver = sessionFactory.getMetadataResolver();
+        this.jdbcBatchSize = sessionFactory.getConfigs().getJdbcBatchSize();
+        this.statementCache = new StatementCache(connection, sessionFactory.getConfigs().getStatementCacheSize());
+        this.snapshots = sessionFactory.getConfigs().getSnapshotStrategy().newStore();
+        if (readOnly) {
+            setConnectionReadOnly(true);
+        }
         transaction = new Transaction(connection, this);
         transaction.begin();
         actionQueue = new ActionQueue();
@@ -33,50 +85,245 @@ public class Session implements AutoCloseable {
 
     public <T> T find(Class<T> type, Object id) {
         checkOpen();
-        Object entity = persistenceContext.computeIfAbsent(
-                EntityKey.of((Serializable) id, metadataResolver.getEntityMetadata(type)),
-                this::loadFromDatasource);
+        EntityMetadata metadata = metadataResolver.getEntityMetadata(type);
+        EntityKey key = EntityKey.of(metadata.toIdentifier((Serializable) id), metadata);
+        Object entity = persistenceContext.get(key);
+        if (entity == null) {
+            entity = load(key);
+            if (entity != null) {
+                addEntity(key, entity);
+                initializeAssociations(key, entity);
+                resolveReferences();
+            }
+        }
         return type.cast(entity);
     }
 
-    public void update(Object entity) {
+    /**
+     * Find entities of the given type by ids. Entities already managed by the session or held by the
+     * second-level cache are not queried, the rest are loaded with chunked {@code WHERE id IN (...)} queries
+     * and registered like {@link #find} does.
+     *
+     * @return found entities in the order of the given ids, ids without a matching row are skipped
+     */
+    public <T> List<T> findAll(Class<T> type, Collection<? extends Serializable> ids) {
         checkOpen();
+        EntityMetadata metadata = metadataResolver.getEntityMetadata(type);
+        CacheRegion region = sessionFactory.getSecondLevelCache().getRegion(metadata);
+        Set<Serializable> idsToLoad = new LinkedHashSet<>();
+        List<EntityKey> keys = new ArrayList<>(ids.size());
+        for (Serializable id : ids) {
+            EntityKey key = EntityKey.of(metadata.toIdentifier(id), metadata);
+            keys.add(key);
+            if (persistenceContext.containsKey(key)) {
+                continue;
+            }
+            Object[] cachedState = isCacheable(key, region) ? region.get(key.getIdentifier()) : null;
+            if (cachedState != null) {
+                sessionFactory.getStatistics().cacheHit(type);
+                Object entity = fromCache(key, region, cachedState);
+                saveStateToSnapshotIfNeeded(key, entity);
+                addEntity(key, entity);
+                initializeAssociations(key, entity);
+            } else {
+                if (isCacheable(key, region)) {
+                    sessionFactory.getStatistics().cacheMiss(type);
+                }
+                idsToLoad.add(key.getIdentifier());
+            }
+        }
+        if (!idsToLoad.isEmpty()) {
+            long loadStartNanos = System.nanoTime();
+            List<Object> loaded = metadata.getPersister().loadFromDatasource(metadata, new ArrayList<>(idsToLoad), this);
+            for (Object entity : loaded) {
+                EntityKey key = EntityKey.of(metadata.getMapper().getId(entity), metadata);
+                saveStateToSnapshotIfNeeded(key, entity);
+                addEntity(key, entity);
+                initializeAssociations(key, entity);
+                if (isCacheable(key, region)) {
+                    region.putFromLoad(key.getIdentifier(), metadata.getMapper().extractState(entity), loadStartNanos);
+                }
+            }
+        }
+        resolveReferences();
+        List<T> result = new ArrayList<>(ids.size());
+        for (EntityKey key : keys) {
+            Object entity = persistenceContext.get(key);
+            if (entity != null) {
+                result.add(type.cast(entity));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Stream entities matching the where clause from a forward-only cursor, for reading large result sets
+     * with flat memory. Entities are not registered in the session, their references hold only the referenced ids
+     * and their {@code OneToMany} lists are not set. The stream must be closed, preferably
+     * with try-with-resources, to release the cursor before the session is closed.
+     *
+     * @param whereSql where clause without the {@code WHERE} keyword with {@code ?} parameters,
+     *                 {@code null} or blank to read all rows
+     * @param params   values of the where clause parameters
+     */
+    public <T> Stream<T> stream(Class<T> type, String whereSql, Object... params) {
+        checkOpen();
+        EntityMetadata metadata = metadataResolver.getEntityMetadata(type);
+        return metadata.getPersister().stream(metadata, whereSql, params, this).map(type::cast);
+    }
+
+    /**
+     * Create a query of entities of the given type, see {@link Query}
+     */
+    public <T> Query<T> createQuery(Class<T> type) {
+        checkOpen();
+        return new Query<>(this, type);
+    }
+
+    /**
+     * Execute a compiled query after flushing pending changes. Found entities are registered like
+     * {@link #find} does, entities already managed by the session are returned as they are.
+     * Cacheable queries take the ids of the found entities from the query result cache when it is enabled
+     * and this session has not written to the queried table in the current transaction.
+     *
+     * @param cacheable whether to use the query result cache
+     * @return found entities in the query order
+     */
+    public List<Object> list(QueryPlan plan, Object[] parameters, boolean cacheable) {
+        checkOpen();
+        flush();
+        EntityMetadata metadata = plan.getMetadata();
+        QueryResultCache queryCache = sessionFactory.getQueryResultCache();
+        if (!cacheable || queryCache == null || pendingTableInvalidations.contains(metadata.getTableName())) {
+            List<Object> result = register(metadata, metadata.getPersister().list(plan, parameters, this));
+            resolveReferences();
+            return result;
+        }
+        List<Serializable> cachedIds = queryCache.get(plan.getSql(), parameters);
+        if (cachedIds != null) {
+            return new ArrayList<>(findAll(metadata.getType(), cachedIds));
+        }
+        long readStartNanos = System.nanoTime();
+        List<Object> result = register(metadata, metadata.getPersister().list(plan, parameters, this));
+        resolveReferences();
+        List<Serializable> ids = new ArrayList<>(result.size());
+        for (Object entity : result) {
+            ids.add(metadata.getMapper().getId(entity));
+        }
+        queryCache.put(plan.getSql(), parameters, metadata.getTableName(), ids, readStartNanos);
+        return result;
+    }
+
+    /**
+     * @return the loaded entities registered in the session, or the managed ones with the same ids
+     */
+    private List<Object> register(EntityMetadata metadata, List<Object> loaded) {
+        List<Object> result = new ArrayList<>(loaded.size());
+        for (Object entity : loaded) {
+            EntityKey key = EntityKey.of(metadata.getMapper().getId(entity), metadata);
+            Object managed = persistenceContext.get(key);
+            if (managed == null) {
+                saveStateToSnapshotIfNeeded(key, entity);
+                addEntity(key, entity);
+                initializeAssociations(key, entity);
+                managed = entity;
+            }
+            result.add(managed);
+        }
+        return result;
+    }
+
+    /**
+     * Check that the entity is managed by this session. Its changes are written on flush, like those of every
+     * managed entity, so the flush resolves the changed columns once.
+     */
+    public void update(Object entity) {
+        checkWritable();
         EntityKey key = getEntityKey(entity);
         if (key == null) throw new IllegalStateException("Cannot get entity in context");
-        if (isDirty(key, entity)) {
-            fireUpdate(key, entity);
-        }
     }
 
     public void persist(Object entity) {
-        checkOpen();
+        checkWritable();
 
         EntityKey entityKey = getEntityKey(entity);
-        if (entityKey != null) return; //Ignoring persistent instance
+        if (entityKey != null || pendingIdentityInserts.contains(entity)) return; //Ignoring persistent instance
         EntityMetadata metadata = metadataResolver.getEntityMetadata(entity.getClass());
         EntityPersister persister = metadata.getPersister();
+        persister.seedVersion(metadata, entity);
         Serializable generatedId = persister.generateIdentifier(metadata, this);
         if (generatedId == POST_INSERT_INDICATOR) {
-            actionQueue.execute(new IdentityInsertAction(metadata, entity, this));
+            pendingIdentityInserts.add(entity);
+            actionQueue.addAction(new IdentityInsertAction(metadata, entity, this));
             return;
         }
         EntityKey key = EntityKey.of(generatedId, metadata);
         persister.setIdentifier(metadata, entity, generatedId);
-        persistenceContext.put(key, entity);
+        addEntity(key, entity);
         saveStateToSnapshotIfNeeded(key, entity);
         firePersist(key, entity);
     }
 
+    /**
+     * Delete the entity on flush. An entity whose identity insert is still pending is never written.
+     */
     public void delete(Object entity) {
-        checkOpen();
+        checkWritable();
+        if (pendingIdentityInserts.remove(entity)) {
+            actionQueue.removeIdentityInsertion(entity);
+            return;
+        }
         EntityKey entityKey = getEntityKey(entity);
         if (entityKey == null) throw new IllegalArgumentException("Removing a detached instance " + entity);
         fireDelete(entityKey, entity);
     }
 
+    /**
+     * Identifier of a managed or persisted entity. Pending identity inserts are executed first when the
+     * entity has no id yet.
+     *
+     * @return id of the entity or {@code null} if the entity is neither managed nor persisted by this session
+     */
+    public Serializable getIdentifier(Object entity) {
+        checkOpen();
+        if (pendingIdentityInserts.contains(entity)) {
+            actionQueue.executeActions(actionQueue.getIdentityInsertions());
+        }
+        EntityKey key = getEntityKey(entity);
+        return key == null ? null : key.getIdentifier();
+    }
+
+    /**
+     * Execute pending identity inserts when the entity references one of them, so its foreign keys are known
+     */
+    public void insertReferencedIdentityEntities(EntityMetadata metadata, Object entity) {
+        if (pendingIdentityInserts.isEmpty()) {
+            return;
+        }
+        for (Reference reference : metadata.getReferences()) {
+            Object target = reference.getFieldAccessor().get(entity);
+            if (target != null && pendingIdentityInserts.contains(target)) {
+                actionQueue.executeActions(actionQueue.getIdentityInsertions());
+                return;
+            }
+        }
+    }
+
+    /**
+     * Queue updates of managed entities changed since their snapshots and execute all queued actions.
+     * Does nothing in a read-only session.
+     */
     public void flush() {
-        persistenceContext.forEach(this::fireUpdate);
+        if (readOnly) {
+            return;
+        }
+        Statistics statistics = sessionFactory.getStatistics();
+        long start = statistics.isEnabled() ? System.nanoTime() : 0;
+        persistenceContext.forEach(this::fireUpdateIfDirty);
         actionQueue.executeActions();
+        if (statistics.isEnabled()) {
+            statistics.flushed(System.nanoTime() - start);
+        }
     }
 
     public boolean isClosed() {
@@ -91,10 +338,31 @@ public class Session implements AutoCloseable {
         return connection;
     }
 
+    public StatementCache getStatementCache() {
+        return statementCache;
+    }
+
     public EntityMetadataResolver getMetadataResolver() {
         return metadataResolver;
     }
 
+    public SessionFactory getSessionFactory() {
+        return sessionFactory;
+    }
+
+    public int getJdbcBatchSize() {
+        return jdbcBatchSize;
+    }
+
+    /**
+     * Override the factory JDBC batch size for this session only
+     *
+     * @param jdbcBatchSize max statements per batch, values less than or equal to 1 disable batching
+     */
+    public void setJdbcBatchSize(int jdbcBatchSize) {
+        this.jdbcBatchSize = jdbcBatchSize;
+    }
+
     public <T> void saveStateToSnapshotIfNeeded(EntityKey key, T entity) {
         if (!readOnly && entity != null) {
             saveStateToSnapshot(key, entity);
@@ -102,44 +370,87 @@ public class Session implements AutoCloseable {
     }
 
     public <T> Object[] toSnapshot(EntityMetadata metadata, T entity) {
-        return metadata.getFields().values()
-                .stream()
-                .filter(field -> !field.getName().equals(metadata.getIdColumnName()))
-                .map(field -> {
-                    try {
-                        field.setAccessible(true);
-                        return field.get(entity);
-                    } catch (IllegalAccessException e) {
-                        throw new OrmException("Cannot get entity state", e);
-                    }
-                })
-                .toArray();
+        return metadata.getMapper().extractState(entity);
     }
 
+    /**
+     * @return read-only view of managed entities, use {@link #addEntity} and {@link #removeEntity} to modify it
+     */
     public Map<EntityKey, Object> getPersistenceContext() {
-        return persistenceContext;
+        return Collections.unmodifiableMap(persistenceContext);
+    }
+
+    /**
+     * Register the entity instance as managed under the given key
+     */
+    public void addEntity(EntityKey key, Object entity) {
+        if (!pendingIdentityInserts.isEmpty()) {
+            pendingIdentityInserts.remove(entity);
+        }
+        Object previous = persistenceContext.put(key, entity);
+        if (previous != null && previous != entity) {
+            entityKeys.remove(previous);
+        }
+        entityKeys.put(entity, key);
+    }
+
+    /**
+     * Detach the entity registered under the given key and drop its snapshot
+     */
+    public void removeEntity(EntityKey key) {
+        Object entity = persistenceContext.remove(key);
+        if (entity != null) {
+            entityKeys.remove(entity);
+        }
+        snapshots.remove(key);
     }
 
-    public Map<EntityKey, Object[]> getSnapshots() {
+    /**
+     * @return key of the given managed entity instance or {@code null} if the instance is not managed by this session
+     */
+    public EntityKey getEntityKey(Object entity) {
+        return entityKeys.get(entity);
+    }
+
+    public SnapshotStore getSnapshots() {
         return snapshots;
     }
 
+    /**
+     * Read-only sessions run on a read-only connection, take no snapshots, never flush and reject
+     * {@link #persist}, {@link #update} and {@link #delete}. Entities of cacheable types are shared with
+     * other read-only sessions through the second-level cache and must not be modified.
+     */
     public boolean isReadOnly() {
         return readOnly;
     }
 
-    public void setReadOnly(boolean readOnly) {
-        this.readOnly = readOnly;
-    }
-
     private void checkOpen() {
         if (isClosed()) {
             throw new IllegalStateException("Session is closed");
         }
     }
 
+    private void checkWritable() {
+        checkOpen();
+        if (readOnly) {
+            throw new IllegalStateException("Session is read-only");
+        }
+    }
+
+    private void setConnectionReadOnly(boolean value) {
+        try {
+            connection.setReadOnly(value);
+        } catch (SQLException e) {
+            throw new OrmException("Cannot set connection read-only " + value, e);
+        }
+    }
+
     private void closeConnection() {
         try {
+            if (readOnly) {
+                connection.setReadOnly(false);
+            }
             connection.close();
         } catch (SQLException ignored) {
         }
@@ -149,12 +460,58 @@ public class Session implements AutoCloseable {
         return actionQueue;
     }
 
+    /**
+     * Flush and commit, the transaction is rolled back if either fails
+     */
     public void close() {
         closed = true;
-        flush();
-        transaction.commit();
-        clear();
-        closeConnection();
+        try {
+            flush();
+            transaction.commit();
+        } catch (RuntimeException e) {
+            transaction.rollback();
+            throw e;
+        } finally {
+            clear();
+            statementCache.close();
+            closeConnection();
+        }
+    }
+
+    /**
+     * Evict the entity from the second-level cache once the current transaction commits.
+     * Until then this session bypasses the cache for the entity, so its uncommitted state is never shared.
+     */
+    public void scheduleCacheEviction(EntityKey key) {
+        if (sessionFactory.getSecondLevelCache().getRegion(key.getMetadata()) != null) {
+            pendingCacheEvictions.add(key);
+        }
+    }
+
+    /**
+     * Invalidate cached query results of the entity table once the current transaction commits.
+     * Until then this session bypasses the query result cache for the table.
+     */
+    public void scheduleTableInvalidation(EntityMetadata metadata) {
+        if (sessionFactory.getQueryResultCache() != null) {
+            pendingTableInvalidations.add(metadata.getTableName());
+        }
+    }
+
+    @Override
+    public void afterTransactionCompletion(boolean committed) {
+        if (committed) {
+            SecondLevelCache cache = sessionFactory.getSecondLevelCache();
+            for (EntityKey key : pendingCacheEvictions) {
+                cache.getRegion(key.getMetadata()).evict(key.getIdentifier());
+            }
+            QueryResultCache queryCache = sessionFactory.getQueryResultCache();
+            if (queryCache != null && !pendingTableInvalidations.isEmpty()) {
+                queryCache.invalidate(pendingTableInvalidations);
+            }
+        }
+        pendingCacheEvictions.clear();
+        pendingTableInvalidations.clear();
     }
 
     /**
@@ -162,31 +519,234 @@ public class Session implements AutoCloseable {
      */
     public void clear() {
         persistenceContext.clear();
+        entityKeys.clear();
         snapshots.clear();
+        pendingReferences.clear();
+        uninitializedCollections.clear();
     }
 
-    private EntityKey getEntityKey(Object entity) {
-        return persistenceContext
-                .entrySet()
-                .stream()
-                .filter(entry -> entry.getValue().equals(entity))
-                .map(Map.Entry::getKey)
-                .findFirst()
-                .orElse(null);
+    /**
+     * Load the elements of the uninitialized list together with up to {@link CollectionRole#getBatchSize()}
+     * other uninitialized lists of the same role with {@code IN} queries by the owner ids
+     *
+     * @throws OrmException if the session is closed
+     */
+    public void initializeCollection(PersistentList<?> collection) {
+        if (closed) {
+            throw new OrmException("Cannot initialize " + collection.getRole() + ", the session is closed");
+        }
+        CollectionRole role = collection.getRole();
+        List<PersistentList<?>> batch = new ArrayList<>();
+        batch.add(collection);
+        Set<PersistentList<?>> uninitialized = uninitializedCollections.getOrDefault(role, Collections.emptySet());
+        uninitialized.remove(collection);
+        Iterator<PersistentList<?>> iterator = uninitialized.iterator();
+        while (batch.size() < role.getBatchSize() && iterator.hasNext()) {
+            batch.add(iterator.next());
+            iterator.remove();
+        }
+        loadCollections(role, batch);
     }
 
-    private Object loadFromDatasource(EntityKey key) {
-        Object entity = key.getMetadata().getPersister().loadFromDatasource(key, this);
+    /**
+     * Load the given {@code OneToMany} property of all given managed entities of the same type at once,
+     * {@code ManyToOne} properties are always loaded with the entities
+     *
+     * @throws IllegalArgumentException if the property is not an association
+     */
+    public void fetch(Collection<?> entities, String property) {
+        checkOpen();
+        List<PersistentList<?>> collections = new ArrayList<>();
+        CollectionRole role = null;
+        for (Object entity : entities) {
+            EntityMetadata metadata = metadataResolver.getEntityMetadata(entity.getClass());
+            role = metadata.getCollectionRole(property);
+            if (role == null) {
+                if (Arrays.stream(metadata.getReferences()).anyMatch(ref -> ref.getProperty().equals(property))) {
+                    return;
+                }
+                throw new IllegalArgumentException(String.format("Entity %s has no association %s",
+                        metadata.getType(), property));
+            }
+            Object collection = role.getFieldAccessor().get(entity);
+            if (collection instanceof PersistentList && !((PersistentList<?>) collection).isInitialized()) {
+                collections.add((PersistentList<?>) collection);
+                uninitializedCollections.getOrDefault(role, Collections.emptySet()).remove(collection);
+            }
+        }
+        if (!collections.isEmpty()) {
+            loadCollections(role, collections);
+        }
+    }
+
+    private void loadCollections(CollectionRole role, List<PersistentList<?>> collections) {
+        EntityMetadata elementMetadata = metadataResolver.getEntityMetadata(role.getElementType());
+        String ownerColumnName = elementMetadata.getColumnName(role.getMappedBy());
+        List<Serializable> ownerIds = new ArrayList<>(collections.size());
+        for (PersistentList<?> collection : collections) {
+            ownerIds.add(collection.getOwnerId());
+        }
+        List<Object> loaded = elementMetadata.getPersister().loadFromDatasource(
+                elementMetadata,
+                elementMetadata.getFindByColumnSql(ownerColumnName),
+                elementMetadata.getColumnBinder(ownerColumnName),
+                ownerIds,
+                this);
+        PropertyAccessor ownerIdAccessor = elementMetadata.getAccessors().get(ownerColumnName);
+        Map<Serializable, List<Object>> elementsByOwnerId = new HashMap<>();
+        for (Object element : register(elementMetadata, loaded)) {
+            Serializable ownerId = (Serializable) ownerIdAccessor.get(element);
+            elementsByOwnerId.computeIfAbsent(ownerId, ignored -> new ArrayList<>()).add(element);
+        }
+        for (PersistentList<?> collection : collections) {
+            collection.initialize(elementsByOwnerId.getOrDefault(collection.getOwnerId(), List.of()));
+        }
+        resolveReferences();
+    }
+
+    /**
+     * Set lazy {@code OneToMany} lists of a loaded entity and queue its {@code ManyToOne} references
+     * for {@link #resolveReferences()}
+     */
+    private void initializeAssociations(EntityKey key, Object entity) {
+        EntityMetadata metadata = key.getMetadata();
+        if (!metadata.hasAssociations()) {
+            return;
+        }
+        if (metadata.getReferences().length > 0) {
+            pendingReferences.add(key);
+        }
+        for (CollectionRole role : metadata.getCollectionRoles()) {
+            PersistentList<Object> collection = new PersistentList<>(role, key.getIdentifier(), this);
+            role.getFieldAccessor().set(entity, collection);
+            uninitializedCollections
+                    .computeIfAbsent(role, ignored -> Collections.newSetFromMap(new IdentityHashMap<>()))
+                    .add(collection);
+        }
+    }
+
+    /**
+     * Replace unloaded references of the queued entities with managed entities. References not managed yet
+     * are loaded together, one {@link #findAll} per referenced type, until no loaded entity has unresolved
+     * references.
+     */
+    private void resolveReferences() {
+        while (!pendingReferences.isEmpty()) {
+            List<EntityKey> keys = new ArrayList<>(pendingReferences);
+            pendingReferences.clear();
+            Map<Class<?>, Set<Serializable>> idsToLoad = new LinkedHashMap<>();
+            for (EntityKey key : keys) {
+                Object entity = persistenceContext.get(key);
+                for (Reference reference : key.getMetadata().getReferences()) {
+                    EntityKey targetKey = getReferenceKey(entity, reference);
+                    if (targetKey != null && !persistenceContext.containsKey(targetKey)) {
+                        idsToLoad.computeIfAbsent(reference.getTargetType(), ignored -> new LinkedHashSet<>())
+                                .add(targetKey.getIdentifier());
+                    }
+                }
+            }
+            idsToLoad.forEach(this::findAll);
+            for (EntityKey key : keys) {
+                Object entity = persistenceContext.get(key);
+                for (Reference reference : key.getMetadata().getReferences()) {
+                    EntityKey targetKey = getReferenceKey(entity, reference);
+                    Object target = targetKey == null ? null : persistenceContext.get(targetKey);
+                    if (target != null) {
+                        reference.getFieldAccessor().set(entity, target);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * @return key of the entity referenced by the property, {@code null} if there is none
+     */
+    private EntityKey getReferenceKey(Object entity, Reference reference) {
+        Object target = entity == null ? null : reference.getFieldAccessor().get(entity);
+        if (target == null) {
+            return null;
+        }
+        EntityMetadata targetMetadata = metadataResolver.getEntityMetadata(reference.getTargetType());
+        return EntityKey.of(targetMetadata.getMapper().getId(target), targetMetadata);
+    }
+
+    private Object load(EntityKey key) {
+        CacheRegion region = sessionFactory.getSecondLevelCache().getRegion(key.getMetadata());
+        Object entity = isCacheable(key, region)
+                ? loadThroughCache(key, region)
+                : loadFromDatasource(key);
         saveStateToSnapshotIfNeeded(key, entity);
         return entity;
     }
 
+    private Object loadThroughCache(EntityKey key, CacheRegion region) {
+        EntityMapper<Object> mapper = key.getMetadata().getMapper();
+        Object[] loaded = new Object[1];
+        Object[] state = region.getOrLoad(key.getIdentifier(), () -> {
+            loaded[0] = loadFromDatasource(key);
+            return loaded[0] == null ? null : mapper.extractState(loaded[0]);
+        });
+        if (loaded[0] != null || state == null) {
+            sessionFactory.getStatistics().cacheMiss(key.getMetadata().getType());
+            return loaded[0];
+        }
+        sessionFactory.getStatistics().cacheHit(key.getMetadata().getType());
+        return fromCache(key, region, state);
+    }
+
+    /**
+     * Read-only sessions share the instance held by the cache entry, other sessions get their own copy
+     */
+    private Object fromCache(EntityKey key, CacheRegion region, Object[] state) {
+        if (readOnly && !key.getMetadata().hasAssociations()) {
+            Object shared = region.getSharedInstance(key.getIdentifier(), cachedState -> assemble(key, cachedState));
+            if (shared != null) {
+                return shared;
+            }
+        }
+        return assemble(key, state);
+    }
+
+    private boolean isCacheable(EntityKey key, CacheRegion region) {
+        return region != null && !pendingCacheEvictions.contains(key);
+    }
+
+    private Object assemble(EntityKey key, Object[] state) {
+        EntityMapper<Object> mapper = key.getMetadata().getMapper();
+        Object entity = mapper.newInstance();
+        mapper.setId(entity, key.getIdentifier());
+        mapper.setState(entity, state);
+        return entity;
+    }
+
+    private Object loadFromDatasource(EntityKey key) {
+        return key.getMetadata().getPersister().loadFromDatasource(key, this);
+    }
+
+    /**
+     * Change tracking entities are marked clean instead, they never hold a snapshot
+     */
     private <T> void saveStateToSnapshot(EntityKey key, T entity) {
+        if (entity instanceof DirtyTracker) {
+            ((DirtyTracker) entity).clearDirtyColumns();
+            return;
+        }
         snapshots.put(key, toSnapshot(key.getMetadata(), entity));
     }
 
-    private void fireUpdate(EntityKey key, Object instance) {
-        actionQueue.addAction(new UpdateAction(key, instance, this));
+    /**
+     * Queue an update with the state and changed columns of the entity, extracted and compared once
+     */
+    private void fireUpdateIfDirty(EntityKey key, Object instance) {
+        if (instance instanceof DirtyTracker && ((DirtyTracker) instance).dirtyColumns().isEmpty()) {
+            return;
+        }
+        Object[] state = toSnapshot(key.getMetadata(), instance);
+        BitSet dirtyColumns = getDirtyColumns(key, instance, state);
+        if (!dirtyColumns.isEmpty()) {
+            actionQueue.addAction(new UpdateAction(key, instance, this, state, dirtyColumns));
+        }
     }
 
     private void firePersist(EntityKey key, Object instance) {
@@ -197,22 +757,23 @@ public class Session implements AutoCloseable {
         actionQueue.addAction(new DeleteAction(entityKey, instance, this));
     }
 
-    private boolean isDirty(EntityKey key, Object entity) {
-        if (isReadOnly()) return true;
-        Object[] snapshot = snapshots.get(key);
-        if (snapshot != null) {
-            return isDirty(snapshot, toSnapshot(key.getMetadata(), entity));
+    public boolean isDirty(EntityKey key, Object entity) {
+        if (readOnly) return false;
+        if (entity instanceof DirtyTracker) {
+            return !((DirtyTracker) entity).dirtyColumns().isEmpty();
         }
-        return true;
+        return snapshots.isDirty(key, toSnapshot(key.getMetadata(), entity));
     }
 
-    private boolean isDirty(Object[] previousState, Object[] currentState) {
-        for (int i = 0; i < previousState.length; i++) {
-            if (!previousState[i].equals(currentState[i])) {
-                return true;
-            }
+    /**
+     * @param currentState state of the entity as returned by {@link #toSnapshot}
+     * @return indexes of the state columns changed since the entity snapshot, all columns when there is no snapshot
+     */
+    public BitSet getDirtyColumns(EntityKey key, Object entity, Object[] currentState) {
+        if (entity instanceof DirtyTracker) {
+            return (BitSet) ((DirtyTracker) entity).dirtyColumns().clone();
         }
-        return false;
+        return snapshots.getDirtyColumns(key, currentState);
     }
 
 }
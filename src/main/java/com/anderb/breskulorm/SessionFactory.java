@@ -1,24 +1,199 @@
 package com.anderb.breskulorm;
 
+import com.anderb.breskulorm.cache.QueryResultCache;
+import com.anderb.breskulorm.cache.SecondLevelCache;
 import com.anderb.breskulorm.exception.OrmException;
+import com.anderb.breskulorm.id.PooledSequenceGenerator;
+import com.anderb.breskulorm.query.QueryPlanCache;
+import com.anderb.breskulorm.stat.StatementListener;
+import com.anderb.breskulorm.stat.Statistics;
 
 import javax.sql.DataSource;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class SessionFactory {
     private final DataSource dataSource;
+    private final SessionFactoryConfigs configs;
     private final EntityMetadataResolver entityMetadataResolver;
+    private final SecondLevelCache secondLevelCache = new SecondLevelCache();
+    private final Map<String, PooledSequenceGenerator> sequenceGenerators = new ConcurrentHashMap<>();
+    private final Statistics statistics;
+    private final StatementListener statementListener;
+    private final QueryPlanCache queryPlanCache;
+    private final QueryResultCache queryResultCache;
+    private volatile Executor asyncExecutor;
 
     public SessionFactory(DataSource dataSource, Class<?>... entityClasses) {
+        this(dataSource, SessionFactoryConfigs.defaults(), entityClasses);
+    }
+
+    public SessionFactory(DataSource dataSource, SessionFactoryConfigs configs, Class<?>... entityClasses) {
         this.dataSource = dataSource;
+        this.configs = configs;
         entityMetadataResolver = new EntityMetadataResolver(entityClasses);
+        if (!configs.getPackagesToScan().isEmpty()) {
+            entityMetadataResolver.register(new EntityScanner(Thread.currentThread().getContextClassLoader())
+                    .scan(configs.getPackagesToScan()));
+        }
+        statistics = new Statistics(configs.isStatisticsEnabled());
+        statementListener = combineStatementListeners(configs.getStatementListeners(), statistics);
+        queryPlanCache = new QueryPlanCache(configs.getQueryPlanCacheSize(), entityMetadataResolver, statistics);
+        queryResultCache = configs.getQueryCacheSize() > 0
+                ? new QueryResultCache(configs.getQueryCacheSize(), statistics)
+                : null;
     }
 
     public Session createSession() {
+        return createSession(false);
+    }
+
+    /**
+     * @param readOnly whether to open a read-only session, see {@link Session#isReadOnly()}
+     */
+    public Session createSession(boolean readOnly) {
         try {
-            return new Session(dataSource.getConnection(), entityMetadataResolver);
+            return new Session(dataSource.getConnection(), this, readOnly);
         } catch (SQLException e) {
             throw new OrmException("Cannot create new Session", e);
         }
     }
+
+    /**
+     * Open a session without persistence context for bulk writes, see {@link StatelessSession}
+     */
+    public StatelessSession openStatelessSession() {
+        try {
+            return new StatelessSession(dataSource.getConnection(), this);
+        } catch (SQLException e) {
+            throw new OrmException("Cannot create new StatelessSession", e);
+        }
+    }
+
+    /**
+     * Open a session running its work asynchronously, see {@link AsyncSession}.
+     * No connection is taken from the pool until the first call is executed.
+     */
+    public AsyncSession openAsyncSession() {
+        return openAsyncSession(false);
+    }
+
+    /**
+     * @param readOnly whether the underlying session is read-only, see {@link Session#isReadOnly()}
+     */
+    public AsyncSession openAsyncSession(boolean readOnly) {
+        return new AsyncSession(this, getAsyncExecutor(), readOnly);
+    }
+
+    /**
+     * @return executor of {@link AsyncSession} work, the configured one or a default created on first use
+     */
+    public Executor getAsyncExecutor() {
+        Executor executor = asyncExecutor;
+        if (executor == null) {
+            synchronized (this) {
+                executor = asyncExecutor;
+                if (executor == null) {
+                    executor = configs.getAsyncExecutor();
+                    if (executor == null) {
+                        executor = newDefaultAsyncExecutor();
+                    }
+                    asyncExecutor = executor;
+                }
+            }
+        }
+        return executor;
+    }
+
+    public SessionFactoryConfigs getConfigs() {
+        return configs;
+    }
+
+    public SecondLevelCache getSecondLevelCache() {
+        return secondLevelCache;
+    }
+
+    /**
+     * @return generator of the entity sequence, shared by all entities using the same sequence
+     */
+    public PooledSequenceGenerator getSequenceGenerator(EntityMetadata metadata) {
+        PooledSequenceGenerator generator = sequenceGenerators.computeIfAbsent(
+                metadata.getSequenceName(),
+                name -> new PooledSequenceGenerator(name, metadata.getAllocationSize()));
+        if (generator.getAllocationSize() != metadata.getAllocationSize()) {
+            throw new OrmException(String.format("Sequence %s is used with different allocation sizes %d and %d",
+                    metadata.getSequenceName(), generator.getAllocationSize(), metadata.getAllocationSize()));
+        }
+        return generator;
+    }
+
+    public EntityMetadataResolver getMetadataResolver() {
+        return entityMetadataResolver;
+    }
+
+    public QueryPlanCache getQueryPlanCache() {
+        return queryPlanCache;
+    }
+
+    /**
+     * @return query result cache or {@code null} when disabled, see {@link SessionFactoryConfigs#getQueryCacheSize()}
+     */
+    public QueryResultCache getQueryResultCache() {
+        return queryResultCache;
+    }
+
+    public Statistics getStatistics() {
+        return statistics;
+    }
+
+    /**
+     * @return listener notifying the configured listeners and statistics of each statement,
+     * {@code null} when there are none so statements are not timed
+     */
+    StatementListener getStatementListener() {
+        return statementListener;
+    }
+
+    /**
+     * Virtual thread per task executor when running on Java 21 or later, looked up reflectively
+     * as the library targets Java 11
+     */
+    private static Executor newDefaultAsyncExecutor() {
+        try {
+            return (Executor) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            AtomicInteger threadCount = new AtomicInteger();
+            return Executors.newCachedThreadPool(task -> {
+                Thread thread = new Thread(task, "breskul-orm-async-" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    private static StatementListener combineStatementListeners(List<StatementListener> configured,
+                                                               Statistics statistics) {
+        List<StatementListener> listeners = new ArrayList<>(configured);
+        if (statistics.isEnabled()) {
+            listeners.add(statistics);
+        }
+        if (listeners.isEmpty()) {
+            return null;
+        }
+        if (listeners.size() == 1) {
+            return listeners.get(0);
+        }
+        StatementListener[] all = listeners.toArray(StatementListener[]::new);
+        return (sql, parameterCount, elapsedNanos) -> {
+            for (StatementListener listener : all) {
+                listener.onStatement(sql, parameterCount, elapsedNanos);
+            }
+        };
+    }
 }
@@ -0,0 +1,90 @@
+package com.anderb.breskulorm;
+
+import com.anderb.breskulorm.snapshot.SnapshotStrategy;
+import com.anderb.breskulorm.stat.StatementListener;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.Singular;
+
+import java.util.List;
+import java.util.concurrent.Executor;
+
+@Builder
+@Getter
+public class SessionFactoryConfigs {
+
+    /**
+     * Maximum number of statements sent to the database in one JDBC batch on flush.
+     * Values less than or equal to 1 disable batching.
+     */
+    @Builder.Default
+    private final int jdbcBatchSize = 1;
+
+    /**
+     * Whether updates and deletes of {@link com.anderb.breskulorm.annotation.Version} entities are batched.
+     * Disable for drivers answering batches with {@link java.sql.Statement#SUCCESS_NO_INFO} instead of row counts,
+     * versioned rows are then written one by one so that each version check is verified.
+     */
+    @Builder.Default
+    private final boolean batchVersionedData = true;
+
+    /**
+     * Maximum number of prepared statements kept open per session connection.
+     */
+    @Builder.Default
+    private final int statementCacheSize = 64;
+
+    /**
+     * Number of rows fetched from the database at once by {@link Session#stream} cursors.
+     */
+    @Builder.Default
+    private final int streamFetchSize = 1000;
+
+    /**
+     * Maximum number of compiled {@link com.anderb.breskulorm.query.Query} plans kept by the factory.
+     */
+    @Builder.Default
+    private final int queryPlanCacheSize = 256;
+
+    /**
+     * Maximum number of results kept by the query result cache of {@link com.anderb.breskulorm.query.Query#cacheable()}
+     * queries, 0 disables the cache.
+     */
+    @Builder.Default
+    private final int queryCacheSize = 0;
+
+    /**
+     * How sessions keep the loaded state of managed entities for dirty checking.
+     */
+    @Builder.Default
+    private final SnapshotStrategy snapshotStrategy = SnapshotStrategy.OBJECT_ARRAY;
+
+    /**
+     * Whether {@link SessionFactory#getStatistics()} collects counters.
+     */
+    @Builder.Default
+    private final boolean statisticsEnabled = false;
+
+    /**
+     * Listeners notified of every statement executed by {@link EntityPersister}.
+     */
+    @Singular
+    private final List<StatementListener> statementListeners;
+
+    /**
+     * Packages, including subpackages, scanned for {@link com.anderb.breskulorm.annotation.Entity} classes
+     * registered in addition to the entity classes given to {@link SessionFactory}.
+     */
+    @Singular("packageToScan")
+    private final List<String> packagesToScan;
+
+    /**
+     * Executor running {@link AsyncSession} work, {@code null} for virtual threads when the runtime supports
+     * them and a cached pool of daemon threads otherwise.
+     */
+    private final Executor asyncExecutor;
+
+    public static SessionFactoryConfigs defaults() {
+        return SessionFactoryConfigs.builder().build();
+    }
+}
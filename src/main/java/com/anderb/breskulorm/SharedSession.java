@@ -0,0 +1,28 @@
+package com.anderb.breskulorm;
+
+import java.sql.Connection;
+
+/**
+ * Contract shared by {@link Session} and {@link StatelessSession}, used by {@link EntityPersister}
+ * and {@link Transaction} to run statements on the session connection.
+ */
+public interface SharedSession extends AutoCloseable {
+
+    Connection getConnection();
+
+    StatementCache getStatementCache();
+
+    SessionFactory getSessionFactory();
+
+    Transaction getTransaction();
+
+    boolean isClosed();
+
+    /**
+     * Callback of {@link Transaction} commit and rollback
+     */
+    void afterTransactionCompletion(boolean committed);
+
+    @Override
+    void close();
+}
@@ -0,0 +1,237 @@
+package com.anderb.breskulorm;
+
+import com.anderb.breskulorm.cache.CacheRegion;
+import com.anderb.breskulorm.cache.QueryResultCache;
+import com.anderb.breskulorm.cache.SecondLevelCache;
+
+import java.io.Serializable;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static com.anderb.breskulorm.EntityPersister.POST_INSERT_INDICATOR;
+
+/**
+ * Session for bulk writes without persistence context, snapshots or dirty checking.
+ * Entities are written straight through {@link EntityPersister}: {@link #update} writes every column and
+ * returned entities are detached. Consecutive operations of the same kind on the same entity type are sent
+ * as JDBC batches of {@link SessionFactoryConfigs#getJdbcBatchSize()} statements, a different operation
+ * or entity type, {@link #get}, {@link #flush} and {@link #close} send the pending batch first.
+ */
+public class StatelessSession implements SharedSession {
+    private final Connection connection;
+    private final SessionFactory sessionFactory;
+    private final EntityMetadataResolver metadataResolver;
+    private final StatementCache statementCache;
+    private final Transaction transaction;
+    private final int jdbcBatchSize;
+    private final List<EntityKey> batchKeys = new ArrayList<>();
+    private final List<Object> batchInstances = new ArrayList<>();
+    private final List<Object[]> batchStates = new ArrayList<>();
+    /**
+     * Keys of cacheable entities written in the current transaction, evicted from the second-level cache on commit
+     */
+    private final Set<EntityKey> pendingCacheEvictions = new HashSet<>();
+    /**
+     * Tables written in the current transaction, their query cache timestamps are bumped on commit
+     */
+    private final Set<String> pendingTableInvalidations = new HashSet<>();
+    private Operation batchOperation;
+    private boolean closed;
+
+    private enum Operation {
+        INSERT, UPDATE, DELETE
+    }
+
+    public StatelessSession(Connection connection, SessionFactory sessionFactory) {
+        this.connection = connection;
+        this.sessionFactory = sessionFactory;
+        this.metadataResolver = sessionFactory.getMetadataResolver();
+        this.jdbcBatchSize = sessionFactory.getConfigs().getJdbcBatchSize();
+        this.statementCache = new StatementCache(connection, sessionFactory.getConfigs().getStatementCacheSize());
+        transaction = new Transaction(connection, this);
+        transaction.begin();
+    }
+
+    /**
+     * Read an entity from the database, the entity is not managed
+     */
+    public <T> T get(Class<T> type, Object id) {
+        checkOpen();
+        flush();
+        EntityKey key = EntityKey.of((Serializable) id, metadataResolver.getEntityMetadata(type));
+        return type.cast(key.getMetadata().getPersister().loadFromDatasource(key, this));
+    }
+
+    /**
+     * Insert the entity, immediately for {@code IDENTITY} ids and in a batch otherwise
+     *
+     * @return identifier of the entity
+     */
+    public Serializable insert(Object entity) {
+        checkOpen();
+        EntityMetadata metadata = metadataResolver.getEntityMetadata(entity.getClass());
+        EntityPersister persister = metadata.getPersister();
+        persister.seedVersion(metadata, entity);
+        Serializable id = persister.generateIdentifier(metadata, this);
+        if (id == POST_INSERT_INDICATOR) {
+            flush();
+            pendingTableInvalidations.add(metadata.getTableName());
+            return persister.insert(EntityKey.of(null, metadata), entity, this);
+        }
+        persister.setIdentifier(metadata, entity, id);
+        addToBatch(Operation.INSERT, EntityKey.of(id, metadata), entity, null);
+        return id;
+    }
+
+    /**
+     * Write all columns of the entity, a versioned entity only if its version matches the row version
+     */
+    public void update(Object entity) {
+        checkOpen();
+        EntityKey key = keyOf(entity);
+        addToBatch(Operation.UPDATE, key, entity, key.getMetadata().getMapper().extractState(entity));
+    }
+
+    public void delete(Object entity) {
+        checkOpen();
+        addToBatch(Operation.DELETE, keyOf(entity), entity, null);
+    }
+
+    /**
+     * Send the pending batch to the database
+     */
+    public void flush() {
+        if (batchKeys.isEmpty()) {
+            return;
+        }
+        EntityMetadata metadata = batchKeys.get(0).getMetadata();
+        EntityPersister persister = metadata.getPersister();
+        switch (batchOperation) {
+            case INSERT:
+                persister.insertBatch(batchKeys, batchInstances, this);
+                break;
+            case UPDATE:
+                BitSet allColumns = new BitSet();
+                allColumns.set(0, metadata.getStateColumnNames().length);
+                persister.updateBatch(batchKeys, batchStates, allColumns, this);
+                if (metadata.isVersioned()) {
+                    for (int i = 0; i < batchInstances.size(); i++) {
+                        metadata.setVersion(batchInstances.get(i), batchStates.get(i)[metadata.getVersionIndex()]);
+                    }
+                }
+                break;
+            case DELETE:
+                persister.deleteBatch(batchKeys, batchInstances, this);
+                break;
+        }
+        pendingTableInvalidations.add(metadata.getTableName());
+        if (batchOperation != Operation.INSERT && sessionFactory.getSecondLevelCache().getRegion(metadata) != null) {
+            pendingCacheEvictions.addAll(batchKeys);
+        }
+        batchKeys.clear();
+        batchInstances.clear();
+        batchStates.clear();
+        batchOperation = null;
+    }
+
+    @Override
+    public Connection getConnection() {
+        return connection;
+    }
+
+    @Override
+    public StatementCache getStatementCache() {
+        return statementCache;
+    }
+
+    @Override
+    public SessionFactory getSessionFactory() {
+        return sessionFactory;
+    }
+
+    @Override
+    public Transaction getTransaction() {
+        return transaction;
+    }
+
+    @Override
+    public boolean isClosed() {
+        return closed;
+    }
+
+    @Override
+    public void afterTransactionCompletion(boolean committed) {
+        if (committed) {
+            SecondLevelCache cache = sessionFactory.getSecondLevelCache();
+            for (EntityKey key : pendingCacheEvictions) {
+                CacheRegion region = cache.getRegion(key.getMetadata());
+                region.evict(key.getIdentifier());
+            }
+            QueryResultCache queryCache = sessionFactory.getQueryResultCache();
+            if (queryCache != null && !pendingTableInvalidations.isEmpty()) {
+                queryCache.invalidate(pendingTableInvalidations);
+            }
+        }
+        pendingCacheEvictions.clear();
+        pendingTableInvalidations.clear();
+    }
+
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            flush();
+            transaction.commit();
+        } catch (RuntimeException e) {
+            transaction.rollback();
+            throw e;
+        } finally {
+            statementCache.close();
+            closeConnection();
+        }
+    }
+
+    private void addToBatch(Operation operation, EntityKey key, Object entity, Object[] state) {
+        if (!batchKeys.isEmpty()
+                && (batchOperation != operation || batchKeys.get(0).getMetadata() != key.getMetadata())) {
+            flush();
+        }
+        batchOperation = operation;
+        batchKeys.add(key);
+        batchInstances.add(entity);
+        batchStates.add(state);
+        if (batchKeys.size() >= jdbcBatchSize) {
+            flush();
+        }
+    }
+
+    private EntityKey keyOf(Object entity) {
+        EntityMetadata metadata = metadataResolver.getEntityMetadata(entity.getClass());
+        Serializable id = metadata.getPersister().getIdValue(entity, metadata);
+        if (id == null) {
+            throw new IllegalArgumentException("Entity without id " + entity);
+        }
+        return EntityKey.of(id, metadata);
+    }
+
+    private void checkOpen() {
+        if (closed) {
+            throw new IllegalStateException("StatelessSession is closed");
+        }
+    }
+
+    private void closeConnection() {
+        try {
+            connection.close();
+        } catch (SQLException ignored) {
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.anderb.breskulorm;
+
+import com.anderb.breskulorm.exception.OrmException;
+import lombok.Value;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static java.sql.Statement.RETURN_GENERATED_KEYS;
+
+/**
+ * Bounded LRU cache of {@link PreparedStatement}s opened on a single session connection.
+ * Statements returned by the cache are owned by it and must not be closed by the caller;
+ * least recently used statements are closed when the cache overflows or is closed.
+ */
+public class StatementCache implements AutoCloseable {
+    private final Connection connection;
+    private final LinkedHashMap<StatementKey, PreparedStatement> statements;
+
+    public StatementCache(Connection connection, int maxSize) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("Statement cache size must be positive: " + maxSize);
+        }
+        this.connection = connection;
+        this.statements = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<StatementKey, PreparedStatement> eldest) {
+                if (size() > maxSize) {
+                    closeQuietly(eldest.getValue());
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    public PreparedStatement prepare(String sql) {
+        return prepare(sql, false);
+    }
+
+    public PreparedStatement prepare(String sql, boolean returnGeneratedKeys) {
+        StatementKey key = new StatementKey(sql, returnGeneratedKeys);
+        PreparedStatement stm = statements.get(key);
+        if (stm == null) {
+            try {
+                stm = returnGeneratedKeys
+                        ? connection.prepareStatement(sql, RETURN_GENERATED_KEYS)
+                        : connection.prepareStatement(sql);
+            } catch (SQLException e) {
+                throw new OrmException("Cannot prepare statement: " + sql, e);
+            }
+            statements.put(key, stm);
+        }
+        return stm;
+    }
+
+    public int size() {
+        return statements.size();
+    }
+
+    @Override
+    public void close() {
+        statements.values().forEach(StatementCache::closeQuietly);
+        statements.clear();
+    }
+
+    private static void closeQuietly(PreparedStatement stm) {
+        try {
+            stm.close();
+        } catch (SQLException ignored) {
+        }
+    }
+
+    @Value
+    private static class StatementKey {
+        String sql;
+        boolean returnGeneratedKeys;
+    }
+}
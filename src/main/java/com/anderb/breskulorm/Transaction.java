@@ -9,7 +9,7 @@ import java.sql.SQLException;
 @RequiredArgsConstructor
 public class Transaction {
     private final Connection connection;
-    private final Session session;
+    private final SharedSession session;
     private boolean isActive;
 
     public void begin() {
@@ -29,6 +29,7 @@ public class Transaction {
             if (isActive) {
                 isActive = false;
                 connection.commit();
+                session.afterTransactionCompletion(true);
             }
         } catch (SQLException e) {
             throw new OrmException("Cannot begin transaction", e);
@@ -40,6 +41,7 @@ public class Transaction {
             if (isActive) {
                 isActive = false;
                 connection.rollback();
+                session.afterTransactionCompletion(false);
             }
         } catch (SQLException e) {
             throw new OrmException("Cannot begin transaction", e);
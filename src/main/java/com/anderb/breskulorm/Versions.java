@@ -0,0 +1,59 @@
+package com.anderb.breskulorm;
+
+import java.lang.invoke.MethodType;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Initial and next values of {@link com.anderb.breskulorm.annotation.Version} columns. Timestamps have
+ * millisecond precision and the next timestamp is always after the previous one.
+ */
+final class Versions {
+
+    private Versions() {
+    }
+
+    static Object initial(Class<?> type) {
+        Class<?> javaType = MethodType.methodType(type).wrap().returnType();
+        if (javaType == Long.class) {
+            return 0L;
+        }
+        if (javaType == Integer.class) {
+            return 0;
+        }
+        if (javaType == Short.class) {
+            return (short) 0;
+        }
+        return next(javaType, null);
+    }
+
+    static Object next(Class<?> type, Object version) {
+        if (version instanceof Long) {
+            return (Long) version + 1;
+        }
+        if (version instanceof Integer) {
+            return (Integer) version + 1;
+        }
+        if (version instanceof Short) {
+            return (short) ((Short) version + 1);
+        }
+        Instant now = Instant.now().truncatedTo(ChronoUnit.MILLIS);
+        if (type == Instant.class) {
+            return version == null || now.isAfter((Instant) version) ? now : ((Instant) version).plusMillis(1);
+        }
+        if (type == LocalDateTime.class) {
+            LocalDateTime localNow = LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+            LocalDateTime previous = (LocalDateTime) version;
+            return previous == null || localNow.isAfter(previous) ? localNow : previous.plus(1, ChronoUnit.MILLIS);
+        }
+        if (type == Timestamp.class) {
+            Timestamp previous = (Timestamp) version;
+            return previous == null || now.isAfter(previous.toInstant())
+                    ? Timestamp.from(now)
+                    : new Timestamp(previous.getTime() + 1);
+        }
+        throw new IllegalArgumentException("Unsupported version " + version + " of type " + type);
+    }
+}
@@ -0,0 +1,115 @@
+package com.anderb.breskulorm.accessor;
+
+import com.anderb.breskulorm.exception.OrmException;
+
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * {@link PropertyAccessor} calling the public getter and setter of a field through a {@link Function} and
+ * a {@link BiConsumer} spun by {@link LambdaMetafactory}. Unlike a {@link MethodHandle} held in an instance
+ * field, the generated classes call the accessor methods directly, so the JIT inlines them at each call site.
+ * Field method handles cannot be bound this way, fields without such accessors use
+ * {@link MethodHandlePropertyAccessor}.
+ */
+public class LambdaPropertyAccessor implements PropertyAccessor {
+    private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+    private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+
+    private final Field field;
+    private final Function<Object, Object> getter;
+    private final BiConsumer<Object, Object> setter;
+
+    private LambdaPropertyAccessor(Field field, Function<Object, Object> getter, BiConsumer<Object, Object> setter) {
+        this.field = field;
+        this.getter = getter;
+        this.setter = setter;
+    }
+
+    /**
+     * @return accessor bound to the getter and setter of the field, or a {@link MethodHandlePropertyAccessor}
+     * if the field has no public getter and void setter of the field type
+     */
+    public static PropertyAccessor of(Field field) {
+        Method getterMethod = findGetter(field);
+        Method setterMethod = getterMethod == null ? null : findSetter(field);
+        if (setterMethod == null) {
+            return MethodHandlePropertyAccessor.of(field);
+        }
+        try {
+            Class<?> type = field.getDeclaringClass();
+            MethodHandles.Lookup lookup = MethodHandles.privateLookupIn(type, MethodHandles.lookup());
+            Class<?> valueType = MethodType.methodType(field.getType()).wrap().returnType();
+            MethodHandle getterHandle = lookup.unreflect(getterMethod);
+            MethodHandle setterHandle = lookup.unreflect(setterMethod);
+            @SuppressWarnings("unchecked")
+            Function<Object, Object> getter = (Function<Object, Object>) LambdaMetafactory.metafactory(
+                    lookup, "apply", MethodType.methodType(Function.class), GETTER_TYPE,
+                    getterHandle, MethodType.methodType(valueType, type)
+            ).getTarget().invokeExact();
+            @SuppressWarnings("unchecked")
+            BiConsumer<Object, Object> setter = (BiConsumer<Object, Object>) LambdaMetafactory.metafactory(
+                    lookup, "accept", MethodType.methodType(BiConsumer.class), SETTER_TYPE,
+                    setterHandle, MethodType.methodType(void.class, type, valueType)
+            ).getTarget().invokeExact();
+            return new LambdaPropertyAccessor(field, getter, setter);
+        } catch (Throwable e) {
+            return MethodHandlePropertyAccessor.of(field);
+        }
+    }
+
+    @Override
+    public Object get(Object instance) {
+        try {
+            return getter.apply(instance);
+        } catch (RuntimeException e) {
+            throw new OrmException("Cannot get value of field " + field, e);
+        }
+    }
+
+    @Override
+    public void set(Object instance, Object value) {
+        try {
+            setter.accept(instance, value);
+        } catch (RuntimeException e) {
+            throw new OrmException("Cannot set value to field " + field, e);
+        }
+    }
+
+    private static Method findGetter(Field field) {
+        String property = capitalize(field.getName());
+        Method getter = findPublicMethod(field.getDeclaringClass(), "get" + property);
+        if (getter == null && field.getType() == boolean.class) {
+            getter = findPublicMethod(field.getDeclaringClass(), "is" + property);
+        }
+        return getter != null && getter.getReturnType() == field.getType() ? getter : null;
+    }
+
+    private static Method findSetter(Field field) {
+        Method setter = findPublicMethod(field.getDeclaringClass(), "set" + capitalize(field.getName()),
+                field.getType());
+        return setter != null && setter.getReturnType() == void.class ? setter : null;
+    }
+
+    private static Method findPublicMethod(Class<?> type, String name, Class<?>... parameterTypes) {
+        try {
+            Method method = type.getDeclaredMethod(name, parameterTypes);
+            return Modifier.isPublic(method.getModifiers()) && !Modifier.isStatic(method.getModifiers())
+                    ? method
+                    : null;
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+
+    private static String capitalize(String name) {
+        return Character.toUpperCase(name.charAt(0)) + name.substring(1);
+    }
+}
@@ -0,0 +1,60 @@
+package com.anderb.breskulorm.accessor;
+
+import com.anderb.breskulorm.exception.OrmException;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+
+/**
+ * {@link PropertyAccessor} backed by field getter/setter {@link MethodHandle}s.
+ * Access checks are performed once on creation instead of on every read and write,
+ * and the handles are adapted to an erased signature so they can be invoked exactly.
+ */
+public class MethodHandlePropertyAccessor implements PropertyAccessor {
+    private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+    private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+
+    private final Field field;
+    private final MethodHandle getter;
+    private final MethodHandle setter;
+
+    private MethodHandlePropertyAccessor(Field field, MethodHandle getter, MethodHandle setter) {
+        this.field = field;
+        this.getter = getter;
+        this.setter = setter;
+    }
+
+    public static PropertyAccessor of(Field field) {
+        try {
+            field.setAccessible(true);
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            return new MethodHandlePropertyAccessor(
+                    field,
+                    lookup.unreflectGetter(field).asType(GETTER_TYPE),
+                    lookup.unreflectSetter(field).asType(SETTER_TYPE)
+            );
+        } catch (IllegalAccessException | RuntimeException e) {
+            throw new OrmException("Cannot create accessor for field " + field, e);
+        }
+    }
+
+    @Override
+    public Object get(Object instance) {
+        try {
+            return (Object) getter.invokeExact(instance);
+        } catch (Throwable e) {
+            throw new OrmException("Cannot get value of field " + field, e);
+        }
+    }
+
+    @Override
+    public void set(Object instance, Object value) {
+        try {
+            setter.invokeExact(instance, value);
+        } catch (Throwable e) {
+            throw new OrmException("Cannot set value to field " + field, e);
+        }
+    }
+}
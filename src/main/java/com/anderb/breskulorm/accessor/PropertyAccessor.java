@@ -0,0 +1,12 @@
+package com.anderb.breskulorm.accessor;
+
+/**
+ * Reads and writes a single persistent property of an entity instance.
+ * Accessors are created once per entity type by {@link com.anderb.breskulorm.EntityMetadataResolver}.
+ */
+public interface PropertyAccessor {
+
+    Object get(Object instance);
+
+    void set(Object instance, Object value);
+}
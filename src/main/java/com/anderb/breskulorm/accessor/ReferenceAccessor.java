@@ -0,0 +1,50 @@
+package com.anderb.breskulorm.accessor;
+
+import com.anderb.breskulorm.mapper.EntityMapper;
+
+import java.io.Serializable;
+import java.util.function.Supplier;
+
+/**
+ * Accessor of a {@link com.anderb.breskulorm.annotation.ManyToOne} property exposing the id of the referenced
+ * entity, so entity states hold foreign key values. Setting an id stores an unloaded reference, a new instance
+ * of the referenced type with only the id set, which the session replaces with the managed entity.
+ */
+public class ReferenceAccessor implements PropertyAccessor {
+    private final PropertyAccessor fieldAccessor;
+    private final Supplier<EntityMapper<Object>> targetMapperSupplier;
+    private volatile EntityMapper<Object> targetMapper;
+
+    /**
+     * @param targetMapperSupplier mapper of the referenced type, resolved on first use
+     */
+    public ReferenceAccessor(PropertyAccessor fieldAccessor, Supplier<EntityMapper<Object>> targetMapperSupplier) {
+        this.fieldAccessor = fieldAccessor;
+        this.targetMapperSupplier = targetMapperSupplier;
+    }
+
+    @Override
+    public Object get(Object instance) {
+        Object reference = fieldAccessor.get(instance);
+        return reference == null ? null : getTargetMapper().getId(reference);
+    }
+
+    @Override
+    public void set(Object instance, Object value) {
+        Object reference = null;
+        if (value != null) {
+            reference = getTargetMapper().newInstance();
+            getTargetMapper().setId(reference, (Serializable) value);
+        }
+        fieldAccessor.set(instance, reference);
+    }
+
+    private EntityMapper<Object> getTargetMapper() {
+        EntityMapper<Object> mapper = targetMapper;
+        if (mapper == null) {
+            mapper = targetMapperSupplier.get();
+            targetMapper = mapper;
+        }
+        return mapper;
+    }
+}
@@ -6,6 +6,10 @@ import com.anderb.breskulorm.exception.OrmException;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 
+import java.util.List;
+
+import static java.util.stream.Collectors.toList;
+
 @AllArgsConstructor
 @Getter
 public abstract class Action {
@@ -14,4 +18,39 @@ public abstract class Action {
     private Session session;
 
     abstract void execute() throws OrmException;
+
+    /**
+     * Execute given actions of this action type and entity type as a single JDBC batch.
+     * By default actions are executed one by one.
+     *
+     * @param batch actions of the same type for the same entity type
+     */
+    void executeBatch(List<? extends Action> batch) throws OrmException {
+        for (Action action : batch) {
+            action.execute();
+        }
+    }
+
+    /**
+     * @return key grouping actions that can share a batch, the entity type by default
+     */
+    Object getBatchKey() {
+        return key.getMetadata().getType();
+    }
+
+    /**
+     * @return maximum number of actions passed to one {@link #executeBatch} call, the session JDBC batch size
+     * by default, values less than or equal to 1 execute actions one by one
+     */
+    int getBatchSize() {
+        return session.getJdbcBatchSize();
+    }
+
+    static List<EntityKey> keysOf(List<? extends Action> actions) {
+        return actions.stream().map(Action::getKey).collect(toList());
+    }
+
+    static List<Object> instancesOf(List<? extends Action> actions) {
+        return actions.stream().map(Action::getInstance).collect(toList());
+    }
 }
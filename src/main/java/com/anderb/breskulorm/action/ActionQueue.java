@@ -1,22 +1,25 @@
 package com.anderb.breskulorm.action;
 
+import com.anderb.breskulorm.EntityKey;
 import com.anderb.breskulorm.exception.OrmException;
 
-import java.util.LinkedHashMap;
-import java.util.LinkedList;
-import java.util.List;
+import java.util.*;
 import java.util.function.Function;
 
 public class ActionQueue {
     private static final LinkedHashMap<Class<? extends Action>, Function<ActionQueue, List<? extends Action>>> EXECUTABLE_LISTS_MAP;
 
     static {
-        EXECUTABLE_LISTS_MAP = new LinkedHashMap<>(3);
+        EXECUTABLE_LISTS_MAP = new LinkedHashMap<>(4);
 
         EXECUTABLE_LISTS_MAP.put(
                 InsertAction.class,
                 (actionQueue) -> actionQueue.insertions
         );
+        EXECUTABLE_LISTS_MAP.put(
+                IdentityInsertAction.class,
+                (actionQueue) -> actionQueue.identityInsertions
+        );
         EXECUTABLE_LISTS_MAP.put(
                 UpdateAction.class,
                 (actionQueue) -> actionQueue.updates
@@ -28,8 +31,10 @@ public class ActionQueue {
     }
 
     private List<InsertAction> insertions;
+    private List<IdentityInsertAction> identityInsertions;
     private List<DeleteAction> deletions;
     private List<UpdateAction> updates;
+    private final Set<EntityKey> updatedKeys = new HashSet<>();
 
     public void addAction(InsertAction action) {
         if (insertions == null) {
@@ -38,7 +43,29 @@ public class ActionQueue {
         insertions.add(action);
     }
 
+    public void addAction(IdentityInsertAction action) {
+        if (identityInsertions == null) {
+            identityInsertions = new LinkedList<>();
+        }
+        identityInsertions.add(action);
+    }
+
+    /**
+     * Drop the pending identity insert of the given instance
+     *
+     * @return whether an insert was pending
+     */
+    public boolean removeIdentityInsertion(Object instance) {
+        return identityInsertions != null && identityInsertions.removeIf(action -> action.getInstance() == instance);
+    }
+
+    /**
+     * Queue the update unless one is already queued for the entity, an entity is updated once per flush
+     */
     public void addAction(UpdateAction action) {
+        if (!updatedKeys.add(action.getKey())) {
+            return;
+        }
         if (updates == null) {
             updates = new LinkedList<>();
         }
@@ -59,15 +86,42 @@ public class ActionQueue {
                 executeActions(l);
             }
         });
+        updatedKeys.clear();
     }
 
     public void executeActions(List<? extends Action> list) throws OrmException {
-        for (Action action : list) {
-            action.execute();
+        if (list.isEmpty()) {
+            return;
+        }
+        int batchSize = list.get(0).getBatchSize();
+        if (batchSize > 1) {
+            executeBatches(list, batchSize);
+        } else {
+            for (Action action : list) {
+                action.execute();
+            }
         }
         list.clear();
     }
 
+    private void executeBatches(List<? extends Action> list, int batchSize) {
+        for (List<Action> group : groupByBatchKey(list)) {
+            for (int from = 0; from < group.size(); from += batchSize) {
+                List<Action> batch = group.subList(from, Math.min(from + batchSize, group.size()));
+                batch.get(0).executeBatch(batch);
+            }
+        }
+    }
+
+    private Collection<List<Action>> groupByBatchKey(List<? extends Action> list) {
+        Map<Object, List<Action>> groups = new LinkedHashMap<>();
+        for (Action action : list) {
+            groups.computeIfAbsent(action.getBatchKey(), batchKey -> new ArrayList<>())
+                    .add(action);
+        }
+        return groups.values();
+    }
+
     /**
      * Execute {@link Action} immediately
      *
@@ -83,6 +137,10 @@ public class ActionQueue {
         return insertions;
     }
 
+    public List<IdentityInsertAction> getIdentityInsertions() {
+        return identityInsertions;
+    }
+
     public List<DeleteAction> getDeletions() {
         return deletions;
     }
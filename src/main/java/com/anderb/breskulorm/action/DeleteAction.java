@@ -5,6 +5,8 @@ import com.anderb.breskulorm.EntityPersister;
 import com.anderb.breskulorm.Session;
 import com.anderb.breskulorm.exception.OrmException;
 
+import java.util.List;
+
 public class DeleteAction extends Action {
 
     public DeleteAction(EntityKey id, Object instance, Session session) {
@@ -16,8 +18,20 @@ public class DeleteAction extends Action {
         EntityKey key = getKey();
         Session session = getSession();
         EntityPersister persister = key.getMetadata().getPersister();
-        persister.delete(key, session);
-        session.getPersistenceContext().remove(key);
-        session.getSnapshots().remove(key);
+        persister.delete(key, getInstance(), session);
+        afterExecute();
+    }
+
+    @Override
+    void executeBatch(List<? extends Action> batch) throws OrmException {
+        EntityPersister persister = getKey().getMetadata().getPersister();
+        persister.deleteBatch(keysOf(batch), instancesOf(batch), getSession());
+        batch.forEach(action -> ((DeleteAction) action).afterExecute());
+    }
+
+    private void afterExecute() {
+        getSession().removeEntity(getKey());
+        getSession().scheduleCacheEviction(getKey());
+        getSession().scheduleTableInvalidation(getKey().getMetadata());
     }
 }
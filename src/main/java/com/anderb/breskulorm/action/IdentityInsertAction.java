@@ -6,7 +6,12 @@ import com.anderb.breskulorm.Session;
 import com.anderb.breskulorm.exception.OrmException;
 
 import java.io.Serializable;
+import java.util.List;
 
+/**
+ * Insert of an entity with a database generated id. The entity is registered in the session under its
+ * generated id once inserted, pending inserts of an entity type are written with multi-row inserts.
+ */
 public class IdentityInsertAction extends Action {
     private final EntityMetadata metadata;
 
@@ -17,11 +22,31 @@ public class IdentityInsertAction extends Action {
 
     @Override
     void execute() throws OrmException {
-        Session session = getSession();
-        Object instance = getInstance();
-        Serializable id = metadata.getPersister().insert(EntityKey.of(null, metadata), instance, session);
-        EntityKey key = EntityKey.of(id, metadata);
-        session.getPersistenceContext().put(key, instance);
-        session.saveStateToSnapshotIfNeeded(key, instance);
+        executeBatch(List.of(this));
+    }
+
+    @Override
+    void executeBatch(List<? extends Action> batch) throws OrmException {
+        List<Object> instances = instancesOf(batch);
+        List<Serializable> ids = metadata.getPersister().insertMultiRow(metadata, instances, getSession());
+        getSession().scheduleTableInvalidation(metadata);
+        for (int i = 0; i < instances.size(); i++) {
+            EntityKey key = EntityKey.of(ids.get(i), metadata);
+            getSession().addEntity(key, instances.get(i));
+            getSession().saveStateToSnapshotIfNeeded(key, instances.get(i));
+        }
+    }
+
+    @Override
+    Object getBatchKey() {
+        return metadata.getType();
+    }
+
+    /**
+     * All pending inserts of an entity type go to {@link #executeBatch}, which splits them into multi-row inserts
+     */
+    @Override
+    int getBatchSize() {
+        return Integer.MAX_VALUE;
     }
 }
@@ -6,6 +6,8 @@ import com.anderb.breskulorm.EntityPersister;
 import com.anderb.breskulorm.Session;
 import com.anderb.breskulorm.exception.OrmException;
 
+import java.util.List;
+
 public class InsertAction extends Action {
 
     public InsertAction(EntityKey id, Object instance, Session session) {
@@ -19,6 +21,18 @@ public class InsertAction extends Action {
         Session session = getSession();
         Object instance = getInstance();
         EntityPersister persister = metadata.getPersister();
+        session.insertReferencedIdentityEntities(metadata, instance);
         persister.insert(key, instance, session);
+        session.scheduleTableInvalidation(metadata);
+    }
+
+    @Override
+    void executeBatch(List<? extends Action> batch) throws OrmException {
+        EntityPersister persister = getKey().getMetadata().getPersister();
+        for (Action action : batch) {
+            getSession().insertReferencedIdentityEntities(getKey().getMetadata(), action.getInstance());
+        }
+        persister.insertBatch(keysOf(batch), instancesOf(batch), getSession());
+        getSession().scheduleTableInvalidation(getKey().getMetadata());
     }
 }
@@ -5,21 +5,74 @@ import com.anderb.breskulorm.EntityPersister;
 import com.anderb.breskulorm.Session;
 import com.anderb.breskulorm.exception.OrmException;
 
+import java.util.BitSet;
+import java.util.List;
 
+import static java.util.stream.Collectors.toList;
+
+/**
+ * Writes the state columns changed since the entity snapshot. The state and changed columns are resolved
+ * once by the session flush that queues the action.
+ */
 public class UpdateAction extends Action {
+    private final Object[] state;
+    private final BitSet dirtyColumns;
+    /**
+     * State written by the last execution. A copy holding the next version for a versioned entity, so that
+     * a failed flush executed again binds the version read from the row.
+     */
+    private Object[] writtenState;
 
-    public UpdateAction(EntityKey key, Object instance, Session session) {
+    /**
+     * @param state        current entity state as returned by {@link Session#toSnapshot}
+     * @param dirtyColumns indexes of the state columns changed since the entity snapshot, not empty
+     */
+    public UpdateAction(EntityKey key, Object instance, Session session, Object[] state, BitSet dirtyColumns) {
         super(key, instance, session);
+        this.state = state;
+        this.dirtyColumns = dirtyColumns;
     }
 
     @Override
     void execute() throws OrmException {
+        EntityPersister persister = getKey().getMetadata().getPersister();
+        persister.update(getKey(), prepareWrittenState(), dirtyColumns, getSession());
+        afterExecute();
+    }
+
+    /**
+     * Updates are batched per entity type and set of changed columns, so a batch shares one statement
+     */
+    @Override
+    Object getBatchKey() {
+        return List.of(getKey().getMetadata().getType(), dirtyColumns);
+    }
+
+    @Override
+    void executeBatch(List<? extends Action> batch) throws OrmException {
+        List<Object[]> states = batch.stream()
+                .map(action -> ((UpdateAction) action).prepareWrittenState())
+                .collect(toList());
+        EntityPersister persister = getKey().getMetadata().getPersister();
+        persister.updateBatch(keysOf(batch), states, dirtyColumns, getSession());
+        batch.forEach(action -> ((UpdateAction) action).afterExecute());
+    }
+
+    private Object[] prepareWrittenState() {
+        writtenState = getKey().getMetadata().isVersioned() ? state.clone() : state;
+        return writtenState;
+    }
+
+    private void afterExecute() {
         EntityKey key = getKey();
         Session session = getSession();
         Object instance = getInstance();
-        EntityPersister persister = key.getMetadata().getPersister();
-        persister.update(key, instance, session);
-        session.getPersistenceContext().put(key, instance);
+        if (key.getMetadata().isVersioned()) {
+            key.getMetadata().setVersion(instance, writtenState[key.getMetadata().getVersionIndex()]);
+        }
+        session.scheduleCacheEviction(key);
+        session.scheduleTableInvalidation(key.getMetadata());
+        session.addEntity(key, instance);
         session.saveStateToSnapshotIfNeeded(key, instance);
     }
 }
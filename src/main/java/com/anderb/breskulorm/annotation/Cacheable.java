@@ -0,0 +1,24 @@
+package com.anderb.breskulorm.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Enables the {@link com.anderb.breskulorm.SessionFactory} second-level cache for an entity type
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Cacheable {
+
+    /**
+     * Maximum number of cached entities, the least recently used are evicted first
+     */
+    int maxEntries() default 1000;
+
+    /**
+     * Time after which a cached entity expires, 0 means entries never expire
+     */
+    long timeToLiveMillis() default 0;
+}
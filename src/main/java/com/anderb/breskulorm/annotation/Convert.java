@@ -0,0 +1,21 @@
+package com.anderb.breskulorm.annotation;
+
+import com.anderb.breskulorm.convert.AttributeConverter;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Maps a {@link Column} field through an {@link AttributeConverter}
+ */
+@Target(ElementType.FIELD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Convert {
+
+    /**
+     * Converter class with a public no-args constructor
+     */
+    Class<? extends AttributeConverter<?, ?>> value();
+}
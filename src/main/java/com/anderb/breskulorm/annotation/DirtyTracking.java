@@ -0,0 +1,16 @@
+package com.anderb.breskulorm.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Requests a change tracking subclass of the entity from the breskul-orm-processor annotation processor.
+ * Instances created by the generated mapper record changed columns in their setters, so sessions
+ * keep no snapshots for them. Entities mapped by reflection ignore this annotation.
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface DirtyTracking {
+}
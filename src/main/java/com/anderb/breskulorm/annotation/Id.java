@@ -13,4 +13,14 @@ public @interface Id {
     String value() default "";
 
     GenerationType generatedValue() default IDENTITY;
+
+    /**
+     * Sequence used by {@link GenerationType#SEQUENCE} ids
+     */
+    String sequenceName() default "orm_sequence";
+
+    /**
+     * Number of ids reserved by one sequence call, must match the {@code INCREMENT BY} of the sequence
+     */
+    int allocationSize() default 1;
 }
@@ -0,0 +1,19 @@
+package com.anderb.breskulorm.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Reference to another entity stored as a foreign key column. Loaded references of a session are fetched
+ * together, one {@code IN} query per referenced entity type.
+ */
+@Target(ElementType.FIELD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface ManyToOne {
+    /**
+     * Foreign key column name
+     */
+    String value();
+}
@@ -0,0 +1,24 @@
+package com.anderb.breskulorm.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * {@link java.util.List} of the entities referencing this entity with a {@link ManyToOne} property.
+ * The list is loaded on first access and is not written, the foreign key is owned by the elements.
+ */
+@Target(ElementType.FIELD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface OneToMany {
+    /**
+     * {@link ManyToOne} property of the element entity referencing the owner
+     */
+    String mappedBy();
+
+    /**
+     * Maximum number of uninitialized lists of the same property loaded together
+     */
+    int batchSize() default 16;
+}
@@ -0,0 +1,18 @@
+package com.anderb.breskulorm.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks the {@link Column} field holding the version of an entity row for optimistic locking.
+ * Numeric versions ({@code long}, {@code int}, {@code short} and their wrappers) start at 0 and are incremented,
+ * timestamp versions ({@link java.time.Instant}, {@link java.time.LocalDateTime}, {@link java.sql.Timestamp})
+ * are set to the current time. Updates and deletes only match the row with the version the entity was read with
+ * and fail with {@link com.anderb.breskulorm.exception.StaleStateException} otherwise.
+ */
+@Target(ElementType.FIELD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Version {
+}
@@ -0,0 +1,43 @@
+package com.anderb.breskulorm.association;
+
+import com.anderb.breskulorm.accessor.PropertyAccessor;
+import lombok.Getter;
+
+/**
+ * {@link com.anderb.breskulorm.annotation.OneToMany} property of an entity type, shared by all its
+ * {@link PersistentList}s. Roles are compared by identity.
+ */
+@Getter
+public class CollectionRole {
+    private final Class<?> ownerType;
+    private final String property;
+    private final Class<?> elementType;
+    /**
+     * {@link com.anderb.breskulorm.annotation.ManyToOne} property of the element type referencing the owner
+     */
+    private final String mappedBy;
+    private final int batchSize;
+    /**
+     * Accessor of the list field of the owner
+     */
+    private final PropertyAccessor fieldAccessor;
+
+    public CollectionRole(Class<?> ownerType,
+                          String property,
+                          Class<?> elementType,
+                          String mappedBy,
+                          int batchSize,
+                          PropertyAccessor fieldAccessor) {
+        this.ownerType = ownerType;
+        this.property = property;
+        this.elementType = elementType;
+        this.mappedBy = mappedBy;
+        this.batchSize = batchSize;
+        this.fieldAccessor = fieldAccessor;
+    }
+
+    @Override
+    public String toString() {
+        return ownerType.getName() + "." + property;
+    }
+}
@@ -0,0 +1,85 @@
+package com.anderb.breskulorm.association;
+
+import com.anderb.breskulorm.Session;
+
+import java.io.Serializable;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * {@link com.anderb.breskulorm.annotation.OneToMany} list of a managed entity, loaded by its session on first
+ * access together with other uninitialized lists of the same role, see {@link Session#initializeCollection}.
+ * Changes of the list are kept in memory only.
+ */
+public class PersistentList<E> extends AbstractList<E> {
+    private final CollectionRole role;
+    private final Serializable ownerId;
+    private final Session session;
+    private List<E> elements;
+
+    public PersistentList(CollectionRole role, Serializable ownerId, Session session) {
+        this.role = role;
+        this.ownerId = ownerId;
+        this.session = session;
+    }
+
+    public CollectionRole getRole() {
+        return role;
+    }
+
+    public Serializable getOwnerId() {
+        return ownerId;
+    }
+
+    public boolean isInitialized() {
+        return elements != null;
+    }
+
+    /**
+     * Set the loaded elements, called by the session
+     */
+    @SuppressWarnings("unchecked")
+    public void initialize(List<?> loaded) {
+        elements = new ArrayList<>((List<E>) loaded);
+    }
+
+    @Override
+    public E get(int index) {
+        return elements().get(index);
+    }
+
+    @Override
+    public int size() {
+        return elements().size();
+    }
+
+    @Override
+    public E set(int index, E element) {
+        return elements().set(index, element);
+    }
+
+    @Override
+    public void add(int index, E element) {
+        elements().add(index, element);
+        modCount++;
+    }
+
+    @Override
+    public E remove(int index) {
+        modCount++;
+        return elements().remove(index);
+    }
+
+    @Override
+    public String toString() {
+        return isInitialized() ? elements.toString() : "PersistentList{" + role + "#" + ownerId + ", uninitialized}";
+    }
+
+    private List<E> elements() {
+        if (elements == null) {
+            session.initializeCollection(this);
+        }
+        return elements;
+    }
+}
@@ -0,0 +1,17 @@
+package com.anderb.breskulorm.association;
+
+import com.anderb.breskulorm.accessor.PropertyAccessor;
+import lombok.Value;
+
+/**
+ * {@link com.anderb.breskulorm.annotation.ManyToOne} property of an entity type
+ */
+@Value
+public class Reference {
+    String property;
+    Class<?> targetType;
+    /**
+     * Accessor of the field holding the referenced entity
+     */
+    PropertyAccessor fieldAccessor;
+}
@@ -0,0 +1,33 @@
+package com.anderb.breskulorm.cache;
+
+/**
+ * Disassembled entity state stored in a {@link CacheRegion}
+ */
+class CacheEntry {
+    private final Object[] state;
+    private final long createdAtMillis = System.currentTimeMillis();
+    /**
+     * Entity assembled from {@link #state} once and shared by read-only sessions
+     */
+    private Object sharedInstance;
+
+    CacheEntry(Object[] state) {
+        this.state = state;
+    }
+
+    Object[] getState() {
+        return state;
+    }
+
+    Object getSharedInstance() {
+        return sharedInstance;
+    }
+
+    void setSharedInstance(Object sharedInstance) {
+        this.sharedInstance = sharedInstance;
+    }
+
+    boolean isExpired(long timeToLiveMillis) {
+        return timeToLiveMillis > 0 && System.currentTimeMillis() - createdAtMillis > timeToLiveMillis;
+    }
+}
@@ -0,0 +1,164 @@
+package com.anderb.breskulorm.cache;
+
+import com.anderb.breskulorm.exception.OrmException;
+
+import java.io.Serializable;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Thread-safe, size-bounded LRU cache of disassembled entity states of a single entity type,
+ * with optional time-to-live expiration. Concurrent misses of the same id share a single load.
+ */
+public class CacheRegion {
+    private final int maxEntries;
+    private final long timeToLiveMillis;
+    private final LinkedHashMap<Serializable, CacheEntry> entries;
+    private final Map<Serializable, CompletableFuture<Object[]>> pendingLoads = new ConcurrentHashMap<>();
+    /**
+     * Time of the last invalidation, loads started before it must not populate the region
+     */
+    private volatile long lastInvalidationNanos = System.nanoTime();
+
+    public CacheRegion(int maxEntries, long timeToLiveMillis) {
+        this.maxEntries = maxEntries;
+        this.timeToLiveMillis = timeToLiveMillis;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Serializable, CacheEntry> eldest) {
+                return size() > CacheRegion.this.maxEntries;
+            }
+        };
+    }
+
+    /**
+     * @return cached state or {@code null} when the id is not cached or its entry expired
+     */
+    public Object[] get(Serializable id) {
+        synchronized (entries) {
+            CacheEntry entry = entries.get(id);
+            if (entry == null) {
+                return null;
+            }
+            if (entry.isExpired(timeToLiveMillis)) {
+                entries.remove(id);
+                return null;
+            }
+            return entry.getState();
+        }
+    }
+
+    /**
+     * Return the entity assembled from the cached state, assembling it on first access. The instance is shared
+     * by all callers until the entry is replaced or evicted, so it must not be modified.
+     *
+     * @return shared entity or {@code null} when the id is not cached or its entry expired
+     */
+    public Object getSharedInstance(Serializable id, Function<Object[], Object> assembler) {
+        synchronized (entries) {
+            CacheEntry entry = entries.get(id);
+            if (entry == null) {
+                return null;
+            }
+            if (entry.isExpired(timeToLiveMillis)) {
+                entries.remove(id);
+                return null;
+            }
+            if (entry.getSharedInstance() == null) {
+                entry.setSharedInstance(assembler.apply(entry.getState()));
+            }
+            return entry.getSharedInstance();
+        }
+    }
+
+    /**
+     * Return the cached state or load it with the given loader. While a load is in progress,
+     * other callers asking for the same id wait for its result instead of loading it again.
+     *
+     * @param loader loads the entity state, may return {@code null} if the entity does not exist
+     */
+    public Object[] getOrLoad(Serializable id, Supplier<Object[]> loader) {
+        Object[] state = get(id);
+        if (state != null) {
+            return state;
+        }
+        CompletableFuture<Object[]> load = new CompletableFuture<>();
+        CompletableFuture<Object[]> pendingLoad = pendingLoads.putIfAbsent(id, load);
+        if (pendingLoad != null) {
+            return await(pendingLoad);
+        }
+        try {
+            state = get(id);
+            if (state == null) {
+                long loadStartNanos = System.nanoTime();
+                state = loader.get();
+                putFromLoad(id, state, loadStartNanos);
+            }
+            load.complete(state);
+            return state;
+        } catch (RuntimeException e) {
+            load.completeExceptionally(e);
+            throw e;
+        } finally {
+            pendingLoads.remove(id, load);
+        }
+    }
+
+    public void put(Serializable id, Object[] state) {
+        synchronized (entries) {
+            entries.put(id, new CacheEntry(state));
+        }
+    }
+
+    public void evict(Serializable id) {
+        synchronized (entries) {
+            lastInvalidationNanos = System.nanoTime();
+            entries.remove(id);
+        }
+    }
+
+    public void clear() {
+        synchronized (entries) {
+            lastInvalidationNanos = System.nanoTime();
+            entries.clear();
+        }
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    /**
+     * Cache state read from the database unless the region was invalidated after the read started
+     *
+     * @param loadStartNanos {@link System#nanoTime()} taken before the state was read
+     */
+    public void putFromLoad(Serializable id, Object[] state, long loadStartNanos) {
+        if (state == null) {
+            return;
+        }
+        synchronized (entries) {
+            if (loadStartNanos - lastInvalidationNanos > 0) {
+                entries.put(id, new CacheEntry(state));
+            }
+        }
+    }
+
+    private Object[] await(CompletableFuture<Object[]> pendingLoad) {
+        try {
+            return pendingLoad.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new OrmException("Cannot load entity into cache", e.getCause());
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.anderb.breskulorm.cache;
+
+import com.anderb.breskulorm.stat.Statistics;
+import lombok.Value;
+
+import java.io.Serializable;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Size-bounded LRU cache of query results shared by all sessions of a {@link com.anderb.breskulorm.SessionFactory},
+ * keyed by SQL and parameter values and holding the ids of the found entities.
+ * Every table has an update timestamp, bumped when a transaction writing to it commits.
+ * A result is valid while it was read after the last update of its table.
+ */
+public class QueryResultCache {
+    private final int maxEntries;
+    private final Statistics statistics;
+    private final LinkedHashMap<Key, Entry> entries;
+    private final Map<String, Long> tableTimestamps = new ConcurrentHashMap<>();
+
+    public QueryResultCache(int maxEntries, Statistics statistics) {
+        this.maxEntries = maxEntries;
+        this.statistics = statistics;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+                return size() > QueryResultCache.this.maxEntries;
+            }
+        };
+    }
+
+    /**
+     * @return ids of the cached result or {@code null} when the query is not cached or its table was updated
+     * after the result was read
+     */
+    public List<Serializable> get(String sql, Object[] parameters) {
+        Key key = new Key(sql, parameters);
+        synchronized (entries) {
+            Entry entry = entries.get(key);
+            if (entry != null && !isUpToDate(entry.getTableName(), entry.getReadStartNanos())) {
+                entries.remove(key);
+                entry = null;
+            }
+            if (entry == null) {
+                statistics.queryCacheMiss();
+                return null;
+            }
+            statistics.queryCacheHit();
+            return entry.getIds();
+        }
+    }
+
+    /**
+     * Cache a result read from the database unless its table was updated after the read started
+     *
+     * @param readStartNanos {@link System#nanoTime()} taken before the query was executed
+     */
+    public void put(String sql, Object[] parameters, String tableName, List<Serializable> ids, long readStartNanos) {
+        synchronized (entries) {
+            if (isUpToDate(tableName, readStartNanos)) {
+                entries.put(new Key(sql, parameters), new Entry(tableName, List.copyOf(ids), readStartNanos));
+                statistics.queryCachePut();
+            }
+        }
+    }
+
+    /**
+     * Bump the update timestamps of the tables, invalidating their cached results
+     */
+    public void invalidate(Collection<String> tableNames) {
+        long now = System.nanoTime();
+        for (String tableName : tableNames) {
+            tableTimestamps.put(tableName, now);
+        }
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    private boolean isUpToDate(String tableName, long readStartNanos) {
+        Long updatedNanos = tableTimestamps.get(tableName);
+        return updatedNanos == null || readStartNanos - updatedNanos > 0;
+    }
+
+    @Value
+    private static class Key {
+        String sql;
+        Object[] parameters;
+    }
+
+    @Value
+    private static class Entry {
+        String tableName;
+        List<Serializable> ids;
+        long readStartNanos;
+    }
+}
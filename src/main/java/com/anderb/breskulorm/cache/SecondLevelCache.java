@@ -0,0 +1,34 @@
+package com.anderb.breskulorm.cache;
+
+import com.anderb.breskulorm.EntityMetadata;
+import com.anderb.breskulorm.annotation.Cacheable;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Entity cache shared by all sessions of a {@link com.anderb.breskulorm.SessionFactory}.
+ * Holds one {@link CacheRegion} per {@link Cacheable} entity type. Entities are stored as
+ * disassembled state arrays, every session assembles its own instances from them.
+ */
+public class SecondLevelCache {
+    private final Map<Class<?>, CacheRegion> regions = new ConcurrentHashMap<>();
+
+    /**
+     * @return cache region of the entity type or {@code null} when the entity is not {@link Cacheable}
+     */
+    public CacheRegion getRegion(EntityMetadata metadata) {
+        Cacheable cacheable = metadata.getCacheable();
+        if (cacheable == null) {
+            return null;
+        }
+        return regions.computeIfAbsent(
+                metadata.getType(),
+                type -> new CacheRegion(cacheable.maxEntries(), cacheable.timeToLiveMillis())
+        );
+    }
+
+    public void clear() {
+        regions.values().forEach(CacheRegion::clear);
+    }
+}
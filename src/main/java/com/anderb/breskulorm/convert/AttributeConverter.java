@@ -0,0 +1,16 @@
+package com.anderb.breskulorm.convert;
+
+/**
+ * Converts an entity attribute to the value stored in its column and back.
+ * Registered on a field with {@link com.anderb.breskulorm.annotation.Convert}, instantiated once per field
+ * when the entity metadata is built. Implementations must be stateless and thread-safe.
+ *
+ * @param <X> entity attribute type
+ * @param <Y> column value type, determines the JDBC methods used to bind and read the column
+ */
+public interface AttributeConverter<X, Y> {
+
+    Y convertToDatabaseColumn(X attribute);
+
+    X convertToEntityAttribute(Y dbData);
+}
@@ -0,0 +1,26 @@
+package com.anderb.breskulorm.exception;
+
+import java.io.Serializable;
+
+/**
+ * Versioned entity row was updated or deleted by another transaction since the entity was loaded
+ */
+public class StaleStateException extends OrmException {
+    private final Class<?> entityType;
+    private final Serializable identifier;
+
+    public StaleStateException(Class<?> entityType, Serializable identifier) {
+        super(String.format("Row of %s with id %s was updated or deleted by another transaction",
+                entityType.getName(), identifier));
+        this.entityType = entityType;
+        this.identifier = identifier;
+    }
+
+    public Class<?> getEntityType() {
+        return entityType;
+    }
+
+    public Serializable getIdentifier() {
+        return identifier;
+    }
+}
@@ -0,0 +1,49 @@
+package com.anderb.breskulorm.id;
+
+import java.util.function.LongSupplier;
+
+/**
+ * Hands out identifiers from blocks reserved in a database sequence.
+ * A sequence value {@code v} reserves the ids {@code [v, v + allocationSize)}, so the sequence must be
+ * declared with {@code INCREMENT BY allocationSize}. Shared by all sessions of a
+ * {@link com.anderb.breskulorm.SessionFactory}.
+ */
+public class PooledSequenceGenerator {
+    private final String sequenceName;
+    private final int allocationSize;
+    private final String nextValueSql;
+    private long nextValue;
+    private long upperLimit;
+
+    public PooledSequenceGenerator(String sequenceName, int allocationSize) {
+        if (allocationSize < 1) {
+            throw new IllegalArgumentException("Allocation size must be positive: " + allocationSize);
+        }
+        this.sequenceName = sequenceName;
+        this.allocationSize = allocationSize;
+        this.nextValueSql = "call next value for " + sequenceName;
+    }
+
+    /**
+     * @param nextSequenceValue reads the next value of the sequence, called once per {@code allocationSize} ids
+     */
+    public synchronized long generate(LongSupplier nextSequenceValue) {
+        if (nextValue >= upperLimit) {
+            nextValue = nextSequenceValue.getAsLong();
+            upperLimit = nextValue + allocationSize;
+        }
+        return nextValue++;
+    }
+
+    public String getSequenceName() {
+        return sequenceName;
+    }
+
+    public int getAllocationSize() {
+        return allocationSize;
+    }
+
+    public String getNextValueSql() {
+        return nextValueSql;
+    }
+}
@@ -0,0 +1,13 @@
+package com.anderb.breskulorm.mapper;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+/**
+ * Binds a column value, possibly {@code null}, to a statement parameter
+ */
+@FunctionalInterface
+public interface ColumnBinder {
+
+    void bind(PreparedStatement statement, int index, Object value) throws SQLException;
+}
@@ -0,0 +1,106 @@
+package com.anderb.breskulorm.mapper;
+
+import com.anderb.breskulorm.convert.AttributeConverter;
+
+import java.lang.invoke.MethodType;
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+
+/**
+ * Creates {@link ColumnBinder}s specialized for a column Java type, resolved once when metadata is built.
+ * Known types are bound with their typed {@code PreparedStatement} setter and {@code setNull} with the
+ * matching SQL type, enums are bound by name and other types with {@code setObject}.
+ * Numeric binders accept any {@link Number}, so ids passed as a different numeric type still bind.
+ */
+public final class ColumnBinders {
+
+    private ColumnBinders() {
+    }
+
+    public static ColumnBinder of(Class<?> type) {
+        Class<?> javaType = MethodType.methodType(type).wrap().returnType();
+        if (javaType == Long.class) {
+            return nullable(Types.BIGINT, (stm, index, value) -> stm.setLong(index, ((Number) value).longValue()));
+        }
+        if (javaType == Integer.class) {
+            return nullable(Types.INTEGER, (stm, index, value) -> stm.setInt(index, ((Number) value).intValue()));
+        }
+        if (javaType == Short.class) {
+            return nullable(Types.SMALLINT, (stm, index, value) -> stm.setShort(index, ((Number) value).shortValue()));
+        }
+        if (javaType == Byte.class) {
+            return nullable(Types.TINYINT, (stm, index, value) -> stm.setByte(index, ((Number) value).byteValue()));
+        }
+        if (javaType == Double.class) {
+            return nullable(Types.DOUBLE, (stm, index, value) -> stm.setDouble(index, ((Number) value).doubleValue()));
+        }
+        if (javaType == Float.class) {
+            return nullable(Types.REAL, (stm, index, value) -> stm.setFloat(index, ((Number) value).floatValue()));
+        }
+        if (javaType == Boolean.class) {
+            return nullable(Types.BOOLEAN, (stm, index, value) -> stm.setBoolean(index, (Boolean) value));
+        }
+        if (javaType == String.class) {
+            return nullable(Types.VARCHAR, (stm, index, value) -> stm.setString(index, (String) value));
+        }
+        if (javaType == BigDecimal.class) {
+            return nullable(Types.NUMERIC, (stm, index, value) -> stm.setBigDecimal(index, (BigDecimal) value));
+        }
+        if (javaType == LocalDate.class) {
+            return nullable(Types.DATE, (stm, index, value) -> stm.setDate(index, Date.valueOf((LocalDate) value)));
+        }
+        if (javaType == LocalTime.class) {
+            return nullable(Types.TIME, (stm, index, value) -> stm.setTime(index, Time.valueOf((LocalTime) value)));
+        }
+        if (javaType == LocalDateTime.class) {
+            return nullable(Types.TIMESTAMP,
+                    (stm, index, value) -> stm.setTimestamp(index, Timestamp.valueOf((LocalDateTime) value)));
+        }
+        if (javaType == Instant.class) {
+            return nullable(Types.TIMESTAMP,
+                    (stm, index, value) -> stm.setTimestamp(index, Timestamp.from((Instant) value)));
+        }
+        if (javaType == Date.class) {
+            return nullable(Types.DATE, (stm, index, value) -> stm.setDate(index, (Date) value));
+        }
+        if (javaType == Time.class) {
+            return nullable(Types.TIME, (stm, index, value) -> stm.setTime(index, (Time) value));
+        }
+        if (javaType == Timestamp.class) {
+            return nullable(Types.TIMESTAMP, (stm, index, value) -> stm.setTimestamp(index, (Timestamp) value));
+        }
+        if (javaType.isEnum()) {
+            return nullable(Types.VARCHAR, (stm, index, value) -> stm.setString(index, ((Enum<?>) value).name()));
+        }
+        return (stm, index, value) -> stm.setObject(index, value);
+    }
+
+    /**
+     * Binder converting attribute values before binding them with the binder of the column type
+     *
+     * @param columnType value type of the converter column
+     */
+    @SuppressWarnings("unchecked")
+    public static ColumnBinder converting(AttributeConverter<?, ?> converter, Class<?> columnType) {
+        var attributeConverter = (AttributeConverter<Object, Object>) converter;
+        ColumnBinder columnBinder = of(columnType);
+        return (stm, index, value) -> columnBinder.bind(stm, index, attributeConverter.convertToDatabaseColumn(value));
+    }
+
+    private static ColumnBinder nullable(int sqlType, ColumnBinder nonNullBinder) {
+        return (stm, index, value) -> {
+            if (value == null) {
+                stm.setNull(index, sqlType);
+            } else {
+                nonNullBinder.bind(stm, index, value);
+            }
+        };
+    }
+}
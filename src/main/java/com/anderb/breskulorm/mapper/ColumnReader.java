@@ -0,0 +1,13 @@
+package com.anderb.breskulorm.mapper;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Reads one column of the current {@link ResultSet} row by position and writes it to an entity field
+ */
+@FunctionalInterface
+public interface ColumnReader {
+
+    void read(ResultSet resultSet, int position, Object entity) throws SQLException;
+}
@@ -0,0 +1,194 @@
+package com.anderb.breskulorm.mapper;
+
+import com.anderb.breskulorm.accessor.PropertyAccessor;
+import com.anderb.breskulorm.convert.AttributeConverter;
+import com.anderb.breskulorm.exception.OrmException;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+
+/**
+ * Creates {@link ColumnReader}s specialized for the field type. {@code long}, {@code int}, {@code double},
+ * {@code boolean}, their wrappers and {@link String} are read with the typed {@code ResultSet} getter and
+ * written through an exactly typed setter handle, so primitives are never boxed. Enums are read by name,
+ * other types with {@link java.sql.ResultSet#getObject(int, Class)}.
+ */
+public final class ColumnReaders {
+
+    private ColumnReaders() {
+    }
+
+    public static ColumnReader of(Field field) {
+        Class<?> type = field.getType();
+        MethodHandle setter = setter(field);
+        if (type == long.class) {
+            return (resultSet, position, entity) -> {
+                long value = resultSet.getLong(position);
+                try {
+                    setter.invokeExact(entity, value);
+                } catch (Throwable e) {
+                    throw cannotSet(field, e);
+                }
+            };
+        }
+        if (type == int.class) {
+            return (resultSet, position, entity) -> {
+                int value = resultSet.getInt(position);
+                try {
+                    setter.invokeExact(entity, value);
+                } catch (Throwable e) {
+                    throw cannotSet(field, e);
+                }
+            };
+        }
+        if (type == double.class) {
+            return (resultSet, position, entity) -> {
+                double value = resultSet.getDouble(position);
+                try {
+                    setter.invokeExact(entity, value);
+                } catch (Throwable e) {
+                    throw cannotSet(field, e);
+                }
+            };
+        }
+        if (type == boolean.class) {
+            return (resultSet, position, entity) -> {
+                boolean value = resultSet.getBoolean(position);
+                try {
+                    setter.invokeExact(entity, value);
+                } catch (Throwable e) {
+                    throw cannotSet(field, e);
+                }
+            };
+        }
+        if (type == Long.class) {
+            return (resultSet, position, entity) -> {
+                long value = resultSet.getLong(position);
+                Long boxed = resultSet.wasNull() ? null : value;
+                try {
+                    setter.invokeExact(entity, boxed);
+                } catch (Throwable e) {
+                    throw cannotSet(field, e);
+                }
+            };
+        }
+        if (type == Integer.class) {
+            return (resultSet, position, entity) -> {
+                int value = resultSet.getInt(position);
+                Integer boxed = resultSet.wasNull() ? null : value;
+                try {
+                    setter.invokeExact(entity, boxed);
+                } catch (Throwable e) {
+                    throw cannotSet(field, e);
+                }
+            };
+        }
+        if (type == Double.class) {
+            return (resultSet, position, entity) -> {
+                double value = resultSet.getDouble(position);
+                Double boxed = resultSet.wasNull() ? null : value;
+                try {
+                    setter.invokeExact(entity, boxed);
+                } catch (Throwable e) {
+                    throw cannotSet(field, e);
+                }
+            };
+        }
+        if (type == Boolean.class) {
+            return (resultSet, position, entity) -> {
+                boolean value = resultSet.getBoolean(position);
+                Boolean boxed = resultSet.wasNull() ? null : value;
+                try {
+                    setter.invokeExact(entity, boxed);
+                } catch (Throwable e) {
+                    throw cannotSet(field, e);
+                }
+            };
+        }
+        if (type == String.class) {
+            return (resultSet, position, entity) -> {
+                String value = resultSet.getString(position);
+                try {
+                    setter.invokeExact(entity, value);
+                } catch (Throwable e) {
+                    throw cannotSet(field, e);
+                }
+            };
+        }
+        MethodHandle objectSetter = setter.asType(MethodType.methodType(void.class, Object.class, Object.class));
+        if (type.isEnum()) {
+            return (resultSet, position, entity) -> {
+                String name = resultSet.getString(position);
+                Object value = name == null ? null : toEnum(type, name);
+                try {
+                    objectSetter.invokeExact(entity, value);
+                } catch (Throwable e) {
+                    throw cannotSet(field, e);
+                }
+            };
+        }
+        Class<?> javaType = MethodType.methodType(type).wrap().returnType();
+        return (resultSet, position, entity) -> {
+            Object value = resultSet.getObject(position, javaType);
+            try {
+                objectSetter.invokeExact(entity, value);
+            } catch (Throwable e) {
+                throw cannotSet(field, e);
+            }
+        };
+    }
+
+    /**
+     * Reader of a field mapped through an {@link AttributeConverter}
+     *
+     * @param columnType value type of the converter column
+     */
+    @SuppressWarnings("unchecked")
+    public static ColumnReader converting(Field field, AttributeConverter<?, ?> converter, Class<?> columnType) {
+        var attributeConverter = (AttributeConverter<Object, Object>) converter;
+        MethodHandle setter = setter(field).asType(MethodType.methodType(void.class, Object.class, Object.class));
+        Class<?> javaType = MethodType.methodType(columnType).wrap().returnType();
+        return (resultSet, position, entity) -> {
+            Object value = attributeConverter.convertToEntityAttribute(resultSet.getObject(position, javaType));
+            try {
+                setter.invokeExact(entity, value);
+            } catch (Throwable e) {
+                throw cannotSet(field, e);
+            }
+        };
+    }
+
+    /**
+     * Reader writing the column value through a property accessor, used for properties whose column value
+     * is not the field value
+     */
+    public static ColumnReader of(PropertyAccessor accessor, Class<?> columnType) {
+        Class<?> javaType = MethodType.methodType(columnType).wrap().returnType();
+        return (resultSet, position, entity) -> accessor.set(entity, resultSet.getObject(position, javaType));
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Object toEnum(Class<?> type, String name) {
+        return Enum.valueOf((Class) type, name);
+    }
+
+    /**
+     * @return setter handle of type {@code (Object, fieldType)void}
+     */
+    private static MethodHandle setter(Field field) {
+        try {
+            field.setAccessible(true);
+            return MethodHandles.lookup()
+                    .unreflectSetter(field)
+                    .asType(MethodType.methodType(void.class, Object.class, field.getType()));
+        } catch (IllegalAccessException | RuntimeException e) {
+            throw new OrmException("Cannot create column reader for field " + field, e);
+        }
+    }
+
+    private static OrmException cannotSet(Field field, Throwable cause) {
+        return new OrmException("Cannot set value to field " + field, cause);
+    }
+}
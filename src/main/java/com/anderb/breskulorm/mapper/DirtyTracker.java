@@ -0,0 +1,21 @@
+package com.anderb.breskulorm.mapper;
+
+import java.util.BitSet;
+
+/**
+ * Entity instance recording its own changes, implemented by subclasses generated for
+ * {@link com.anderb.breskulorm.annotation.DirtyTracking} entities.
+ * Column indexes follow {@link com.anderb.breskulorm.EntityMetadata#getStateColumnNames()}.
+ */
+public interface DirtyTracker {
+
+    /**
+     * @return indexes of the state columns changed since the last {@link #clearDirtyColumns()}, not a copy
+     */
+    BitSet dirtyColumns();
+
+    /**
+     * Mark the current state as persistent
+     */
+    void clearDirtyColumns();
+}
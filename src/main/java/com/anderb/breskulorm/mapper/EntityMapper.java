@@ -0,0 +1,42 @@
+package com.anderb.breskulorm.mapper;
+
+import java.io.Serializable;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Hot path operations of a single entity type: hydration, parameter binding and state extraction.
+ * State values are always the non-id columns in {@link com.anderb.breskulorm.EntityMetadata} order.
+ *
+ * @param <T> entity type
+ */
+public interface EntityMapper<T> {
+
+    T newInstance();
+
+    /**
+     * Create an entity instance from the current row of the given result set.
+     * The row must contain the columns of the entity select SQL.
+     */
+    T hydrate(ResultSet resultSet) throws SQLException;
+
+    Object[] extractState(T entity);
+
+    /**
+     * Write previously extracted state values back to the entity
+     */
+    void setState(T entity, Object[] state);
+
+    /**
+     * Bind entity state values as statement parameters
+     *
+     * @param startIndex index of the first state parameter
+     * @return index of the parameter following the last bound state value
+     */
+    int bindState(PreparedStatement statement, T entity, int startIndex) throws SQLException;
+
+    Serializable getId(T entity);
+
+    void setId(T entity, Serializable id);
+}
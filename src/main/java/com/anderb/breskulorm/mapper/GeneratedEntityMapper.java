@@ -0,0 +1,47 @@
+package com.anderb.breskulorm.mapper;
+
+import com.anderb.breskulorm.annotation.GenerationType;
+
+/**
+ * {@link EntityMapper} generated at compile time by the breskul-orm-processor annotation processor.
+ * Besides the hot path operations it describes the entity mapping, so that
+ * {@link com.anderb.breskulorm.EntityMetadataResolver} does not need to scan entity fields.
+ * A generated mapper is named after its entity with the {@link #SUFFIX} appended and lives in the entity package.
+ *
+ * @param <T> entity type
+ */
+public interface GeneratedEntityMapper<T> extends EntityMapper<T> {
+
+    String SUFFIX = "_Mapper";
+
+    Class<T> getEntityType();
+
+    String getTableName();
+
+    String getIdColumnName();
+
+    GenerationType getIdGenerationType();
+
+    String getSequenceName();
+
+    int getAllocationSize();
+
+    Class<?> getIdType();
+
+    String[] getStateColumnNames();
+
+    /**
+     * @return field types of the state columns in {@link #getStateColumnNames()} order
+     */
+    Class<?>[] getStateColumnTypes();
+
+    String getSelectSql();
+
+    String getFindByIdSql();
+
+    String getInsertSql();
+
+    String getUpdateSql();
+
+    String getDeleteSql();
+}
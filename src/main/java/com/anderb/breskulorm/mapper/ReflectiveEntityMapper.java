@@ -0,0 +1,92 @@
+package com.anderb.breskulorm.mapper;
+
+import com.anderb.breskulorm.accessor.PropertyAccessor;
+import com.anderb.breskulorm.exception.OrmException;
+
+import java.io.Serializable;
+import java.lang.reflect.Constructor;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * {@link EntityMapper} used for entities without a generated mapper.
+ * Works through the {@link PropertyAccessor}s resolved from entity fields, rows are hydrated
+ * with positional {@link ColumnReader}s in the column order of the entity select SQL.
+ */
+public class ReflectiveEntityMapper implements EntityMapper<Object> {
+    private final Constructor<?> constructor;
+    private final ColumnReader[] columnReaders;
+    private final ColumnBinder[] stateBinders;
+    private final PropertyAccessor idAccessor;
+    private final PropertyAccessor[] stateAccessors;
+
+    public ReflectiveEntityMapper(Class<?> type,
+                                  ColumnReader[] columnReaders,
+                                  ColumnBinder[] stateBinders,
+                                  PropertyAccessor idAccessor,
+                                  PropertyAccessor[] stateAccessors) {
+        try {
+            this.constructor = type.getDeclaredConstructor();
+            this.constructor.setAccessible(true);
+        } catch (NoSuchMethodException e) {
+            throw new OrmException("Entity " + type + " has no default constructor", e);
+        }
+        this.columnReaders = columnReaders;
+        this.stateBinders = stateBinders;
+        this.idAccessor = idAccessor;
+        this.stateAccessors = stateAccessors;
+    }
+
+    @Override
+    public Object newInstance() {
+        try {
+            return constructor.newInstance();
+        } catch (Exception e) {
+            throw new OrmException("Cannot create instance of " + constructor.getDeclaringClass(), e);
+        }
+    }
+
+    @Override
+    public Object hydrate(ResultSet resultSet) throws SQLException {
+        Object instance = newInstance();
+        for (int i = 0; i < columnReaders.length; i++) {
+            columnReaders[i].read(resultSet, i + 1, instance);
+        }
+        return instance;
+    }
+
+    @Override
+    public Object[] extractState(Object entity) {
+        Object[] state = new Object[stateAccessors.length];
+        for (int i = 0; i < stateAccessors.length; i++) {
+            state[i] = stateAccessors[i].get(entity);
+        }
+        return state;
+    }
+
+    @Override
+    public void setState(Object entity, Object[] state) {
+        for (int i = 0; i < stateAccessors.length; i++) {
+            stateAccessors[i].set(entity, state[i]);
+        }
+    }
+
+    @Override
+    public int bindState(PreparedStatement statement, Object entity, int startIndex) throws SQLException {
+        for (int i = 0; i < stateAccessors.length; i++) {
+            stateBinders[i].bind(statement, startIndex + i, stateAccessors[i].get(entity));
+        }
+        return startIndex + stateAccessors.length;
+    }
+
+    @Override
+    public Serializable getId(Object entity) {
+        return (Serializable) idAccessor.get(entity);
+    }
+
+    @Override
+    public void setId(Object entity, Serializable id) {
+        idAccessor.set(entity, id);
+    }
+}
@@ -0,0 +1,33 @@
+package com.anderb.breskulorm.query;
+
+/**
+ * Comparison of a property in a {@link Query} condition
+ */
+public enum Operator {
+    EQ("=?"),
+    NE("<>?"),
+    LT("<?"),
+    LE("<=?"),
+    GT(">?"),
+    GE(">=?"),
+    LIKE(" LIKE ?"),
+    IS_NULL(" IS NULL"),
+    IS_NOT_NULL(" IS NOT NULL");
+
+    private final String sql;
+
+    Operator(String sql) {
+        this.sql = sql;
+    }
+
+    /**
+     * @return SQL following the column name
+     */
+    public String getSql() {
+        return sql;
+    }
+
+    public boolean hasParameter() {
+        return sql.endsWith("?");
+    }
+}
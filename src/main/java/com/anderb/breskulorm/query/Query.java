@@ -0,0 +1,141 @@
+package com.anderb.breskulorm.query;
+
+import com.anderb.breskulorm.Session;
+import com.anderb.breskulorm.exception.OrmException;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Query of entities by property conditions, joined with {@code AND}, created by {@link Session#createQuery}.
+ * Properties are entity field names. The SQL is compiled once per query shape and cached by the
+ * session factory, executing a query binds the values and registers the found entities in the session.
+ */
+public class Query<T> {
+    private final Session session;
+    private final Class<T> type;
+    private final List<String> properties = new ArrayList<>(4);
+    private final List<Operator> operators = new ArrayList<>(4);
+    private final List<Object> parameters = new ArrayList<>(4);
+    private final List<String> orderProperties = new ArrayList<>(2);
+    private final List<Boolean> descending = new ArrayList<>(2);
+    private final List<String> fetches = new ArrayList<>(1);
+    private Integer maxResults;
+    private boolean cacheable;
+
+    public Query(Session session, Class<T> type) {
+        this.session = session;
+        this.type = type;
+    }
+
+    /**
+     * @param value value compared with the property, use {@link Operator#IS_NULL} to match {@code null}
+     */
+    public Query<T> where(String property, Operator operator, Object value) {
+        if (!operator.hasParameter()) {
+            throw new IllegalArgumentException("Operator " + operator + " takes no value");
+        }
+        if (value == null) {
+            throw new IllegalArgumentException("Null value of " + property + ", use IS_NULL or IS_NOT_NULL");
+        }
+        properties.add(property);
+        operators.add(operator);
+        parameters.add(value);
+        return this;
+    }
+
+    /**
+     * @param operator {@link Operator#IS_NULL} or {@link Operator#IS_NOT_NULL}
+     */
+    public Query<T> where(String property, Operator operator) {
+        if (operator.hasParameter()) {
+            throw new IllegalArgumentException("Operator " + operator + " requires a value");
+        }
+        properties.add(property);
+        operators.add(operator);
+        return this;
+    }
+
+    public Query<T> orderBy(String property) {
+        return orderBy(property, false);
+    }
+
+    public Query<T> orderByDesc(String property) {
+        return orderBy(property, true);
+    }
+
+    public Query<T> limit(int maxResults) {
+        if (maxResults < 0) {
+            throw new IllegalArgumentException("Negative limit " + maxResults);
+        }
+        this.maxResults = maxResults;
+        return this;
+    }
+
+    /**
+     * Load the {@code OneToMany} property of all found entities right after the query, see {@link Session#fetch}
+     */
+    public Query<T> fetch(String property) {
+        fetches.add(property);
+        return this;
+    }
+
+    /**
+     * Take the result from the query result cache, see {@link Session#list}
+     */
+    public Query<T> cacheable() {
+        this.cacheable = true;
+        return this;
+    }
+
+    public List<T> getResultList() {
+        QueryPlan plan = session.getSessionFactory().getQueryPlanCache().get(getKey());
+        Object[] values = parameters.toArray(new Object[parameters.size() + (maxResults == null ? 0 : 1)]);
+        if (maxResults != null) {
+            values[parameters.size()] = maxResults;
+        }
+        List<Object> entities = session.list(plan, values, cacheable);
+        List<T> result = new ArrayList<>(entities.size());
+        for (Object entity : entities) {
+            result.add(type.cast(entity));
+        }
+        if (!result.isEmpty()) {
+            for (String property : fetches) {
+                session.fetch(result, property);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return the only found entity, {@code null} if nothing is found
+     * @throws OrmException if more than one entity is found
+     */
+    public T getSingleResult() {
+        List<T> result = getResultList();
+        if (result.size() > 1) {
+            throw new OrmException(String.format("Query of %s returned %d entities", type, result.size()));
+        }
+        return result.isEmpty() ? null : result.get(0);
+    }
+
+    private Query<T> orderBy(String property, boolean descendingOrder) {
+        orderProperties.add(property);
+        descending.add(descendingOrder);
+        return this;
+    }
+
+    private QueryKey getKey() {
+        boolean[] descendingOrders = new boolean[descending.size()];
+        for (int i = 0; i < descendingOrders.length; i++) {
+            descendingOrders[i] = descending.get(i);
+        }
+        return new QueryKey(
+                type,
+                properties.toArray(String[]::new),
+                operators.toArray(Operator[]::new),
+                orderProperties.toArray(String[]::new),
+                descendingOrders,
+                maxResults != null);
+    }
+}
@@ -0,0 +1,17 @@
+package com.anderb.breskulorm.query;
+
+import lombok.Value;
+
+/**
+ * Shape of a {@link Query}: everything but the parameter values, so queries differing only in values
+ * share a {@link QueryPlan}
+ */
+@Value
+public class QueryKey {
+    Class<?> type;
+    String[] properties;
+    Operator[] operators;
+    String[] orderProperties;
+    boolean[] descending;
+    boolean limited;
+}
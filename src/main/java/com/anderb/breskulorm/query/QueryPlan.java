@@ -0,0 +1,61 @@
+package com.anderb.breskulorm.query;
+
+import com.anderb.breskulorm.EntityMetadata;
+import com.anderb.breskulorm.mapper.ColumnBinder;
+import com.anderb.breskulorm.mapper.ColumnBinders;
+import lombok.Getter;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * SQL of a {@link QueryKey} with the binders of its parameters, compiled once per query shape
+ */
+@Getter
+public class QueryPlan {
+    private static final ColumnBinder LIMIT_BINDER = ColumnBinders.of(int.class);
+
+    private final EntityMetadata metadata;
+    private final String sql;
+    private final ColumnBinder[] parameterBinders;
+
+    private QueryPlan(EntityMetadata metadata, String sql, ColumnBinder[] parameterBinders) {
+        this.metadata = metadata;
+        this.sql = sql;
+        this.parameterBinders = parameterBinders;
+    }
+
+    public static QueryPlan compile(EntityMetadata metadata, QueryKey key) {
+        StringBuilder sql = new StringBuilder(metadata.getSelectSql());
+        List<ColumnBinder> binders = new ArrayList<>();
+        String[] properties = key.getProperties();
+        for (int i = 0; i < properties.length; i++) {
+            String columnName = metadata.getColumnName(properties[i]);
+            Operator operator = key.getOperators()[i];
+            sql.append(i == 0 ? " WHERE " : " AND ").append(columnName).append(operator.getSql());
+            if (operator.hasParameter()) {
+                binders.add(metadata.getColumnBinder(columnName));
+            }
+        }
+        String[] orderProperties = key.getOrderProperties();
+        for (int i = 0; i < orderProperties.length; i++) {
+            sql.append(i == 0 ? " ORDER BY " : ", ").append(metadata.getColumnName(orderProperties[i]));
+            if (key.getDescending()[i]) {
+                sql.append(" DESC");
+            }
+        }
+        if (key.isLimited()) {
+            sql.append(" LIMIT ?");
+            binders.add(LIMIT_BINDER);
+        }
+        return new QueryPlan(metadata, sql.toString(), binders.toArray(ColumnBinder[]::new));
+    }
+
+    public void bind(PreparedStatement stm, Object[] parameters) throws SQLException {
+        for (int i = 0; i < parameterBinders.length; i++) {
+            parameterBinders[i].bind(stm, i + 1, parameters[i]);
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.anderb.breskulorm.query;
+
+import com.anderb.breskulorm.EntityMetadataResolver;
+import com.anderb.breskulorm.stat.Statistics;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Compiled {@link QueryPlan}s of a {@link com.anderb.breskulorm.SessionFactory} keyed by query shape.
+ * Once the cache holds {@code maxSize} plans, plans of new shapes are compiled on every use.
+ */
+public class QueryPlanCache {
+    private final Map<QueryKey, QueryPlan> plans = new ConcurrentHashMap<>();
+    private final int maxSize;
+    private final EntityMetadataResolver metadataResolver;
+    private final Statistics statistics;
+
+    public QueryPlanCache(int maxSize, EntityMetadataResolver metadataResolver, Statistics statistics) {
+        this.maxSize = maxSize;
+        this.metadataResolver = metadataResolver;
+        this.statistics = statistics;
+    }
+
+    public QueryPlan get(QueryKey key) {
+        QueryPlan plan = plans.get(key);
+        if (plan != null) {
+            statistics.queryPlanCacheHit();
+            return plan;
+        }
+        statistics.queryPlanCacheMiss();
+        plan = QueryPlan.compile(metadataResolver.getEntityMetadata(key.getType()), key);
+        if (plans.size() < maxSize) {
+            QueryPlan cached = plans.putIfAbsent(key, plan);
+            return cached == null ? plan : cached;
+        }
+        return plan;
+    }
+
+    public int size() {
+        return plans.size();
+    }
+
+    public void clear() {
+        plans.clear();
+    }
+}
@@ -0,0 +1,208 @@
+package com.anderb.breskulorm.snapshot;
+
+import com.anderb.breskulorm.EntityKey;
+import com.anderb.breskulorm.EntityMetadata;
+
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Packs the snapshots of each entity type into one array per column indexed by {@link SlotIndex} slots.
+ * Numeric and boolean columns are stored as {@code long} values with a null bit, so the boxed values of the
+ * entity are not retained once they change. Other values, strings included, are kept by reference: they are the
+ * instances the entity holds, so interning them would only add a pool entry per distinct value.
+ */
+public class ColumnarSnapshotStore implements SnapshotStore {
+    private final Map<Class<?>, Table> tables = new HashMap<>();
+
+    @Override
+    public void put(EntityKey key, Object[] state) {
+        Table table = tables.computeIfAbsent(key.getMetadata().getType(), type -> new Table(key.getMetadata()));
+        int slot = table.index.getOrAllocate(key.getIdentifier());
+        table.ensureCapacity(table.index.slotLimit());
+        for (int column = 0; column < state.length; column++) {
+            table.write(slot, column, state[column]);
+        }
+    }
+
+    @Override
+    public void remove(EntityKey key) {
+        Table table = tables.get(key.getMetadata().getType());
+        if (table != null) {
+            int slot = table.index.remove(key.getIdentifier());
+            if (slot >= 0) {
+                table.release(slot);
+            }
+        }
+    }
+
+    @Override
+    public boolean contains(EntityKey key) {
+        return slotOf(key) >= 0;
+    }
+
+    @Override
+    public boolean isDirty(EntityKey key, Object[] currentState) {
+        int slot = slotOf(key);
+        if (slot < 0) {
+            return true;
+        }
+        Table table = tables.get(key.getMetadata().getType());
+        for (int column = 0; column < currentState.length; column++) {
+            if (!table.matches(slot, column, currentState[column])) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public BitSet getDirtyColumns(EntityKey key, Object[] currentState) {
+        int slot = slotOf(key);
+        if (slot < 0) {
+            return SnapshotStore.allColumns(currentState);
+        }
+        Table table = tables.get(key.getMetadata().getType());
+        BitSet dirtyColumns = new BitSet(currentState.length);
+        for (int column = 0; column < currentState.length; column++) {
+            if (!table.matches(slot, column, currentState[column])) {
+                dirtyColumns.set(column);
+            }
+        }
+        return dirtyColumns;
+    }
+
+    @Override
+    public int size() {
+        int size = 0;
+        for (Table table : tables.values()) {
+            size += table.index.size();
+        }
+        return size;
+    }
+
+    @Override
+    public void clear() {
+        tables.clear();
+    }
+
+    private int slotOf(EntityKey key) {
+        Table table = tables.get(key.getMetadata().getType());
+        return table == null ? -1 : table.index.get(key.getIdentifier());
+    }
+
+    private enum Encoding {
+        INTEGRAL, FLOATING, BOOLEAN, REFERENCE;
+
+        static Encoding of(Class<?> type) {
+            if (type == long.class || type == Long.class || type == int.class || type == Integer.class
+                    || type == short.class || type == Short.class || type == byte.class || type == Byte.class) {
+                return INTEGRAL;
+            }
+            if (type == double.class || type == Double.class || type == float.class || type == Float.class) {
+                return FLOATING;
+            }
+            if (type == boolean.class || type == Boolean.class) {
+                return BOOLEAN;
+            }
+            return REFERENCE;
+        }
+
+        long encode(Object value) {
+            switch (this) {
+                case INTEGRAL:
+                    return ((Number) value).longValue();
+                case FLOATING:
+                    return Double.doubleToLongBits(((Number) value).doubleValue());
+                case BOOLEAN:
+                    return (Boolean) value ? 1 : 0;
+                default:
+                    throw new IllegalStateException("Reference columns are not encoded");
+            }
+        }
+    }
+
+    /**
+     * Snapshots of one entity type, {@code nulls} has a bit per slot and primitive column
+     */
+    private static final class Table {
+        private final SlotIndex index = new SlotIndex();
+        private final Encoding[] encodings;
+        private final long[][] primitiveColumns;
+        private final Object[][] referenceColumns;
+        private final BitSet nulls = new BitSet();
+        private int capacity;
+
+        Table(EntityMetadata metadata) {
+            Class<?>[] types = metadata.getStateTypes();
+            encodings = new Encoding[types.length];
+            primitiveColumns = new long[types.length][];
+            referenceColumns = new Object[types.length][];
+            for (int column = 0; column < types.length; column++) {
+                encodings[column] = Encoding.of(types[column]);
+            }
+            ensureCapacity(16);
+        }
+
+        void ensureCapacity(int slots) {
+            if (slots <= capacity) {
+                return;
+            }
+            int newCapacity = Math.max(slots, capacity * 2);
+            for (int column = 0; column < encodings.length; column++) {
+                if (encodings[column] == Encoding.REFERENCE) {
+                    Object[] grown = new Object[newCapacity];
+                    if (referenceColumns[column] != null) {
+                        System.arraycopy(referenceColumns[column], 0, grown, 0, capacity);
+                    }
+                    referenceColumns[column] = grown;
+                } else {
+                    long[] grown = new long[newCapacity];
+                    if (primitiveColumns[column] != null) {
+                        System.arraycopy(primitiveColumns[column], 0, grown, 0, capacity);
+                    }
+                    primitiveColumns[column] = grown;
+                }
+            }
+            capacity = newCapacity;
+        }
+
+        void write(int slot, int column, Object value) {
+            Encoding encoding = encodings[column];
+            if (encoding == Encoding.REFERENCE) {
+                referenceColumns[column][slot] = value;
+                return;
+            }
+            nulls.set(nullBit(slot, column), value == null);
+            primitiveColumns[column][slot] = value == null ? 0 : encoding.encode(value);
+        }
+
+        boolean matches(int slot, int column, Object value) {
+            Encoding encoding = encodings[column];
+            if (encoding == Encoding.REFERENCE) {
+                return Objects.equals(referenceColumns[column][slot], value);
+            }
+            if (nulls.get(nullBit(slot, column))) {
+                return value == null;
+            }
+            return value != null && primitiveColumns[column][slot] == encoding.encode(value);
+        }
+
+        /**
+         * Drop references held by a freed slot
+         */
+        void release(int slot) {
+            for (Object[] column : referenceColumns) {
+                if (column != null) {
+                    column[slot] = null;
+                }
+            }
+        }
+
+        private int nullBit(int slot, int column) {
+            return slot * encodings.length + column;
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package com.anderb.breskulorm.snapshot;
+
+import com.anderb.breskulorm.EntityKey;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.BitSet;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Keeps a 64-bit hash of each entity state instead of the state. Changed columns are unknown,
+ * so a changed entity reports all columns dirty.
+ */
+public class HashSnapshotStore implements SnapshotStore {
+    private final Map<Class<?>, Table> tables = new HashMap<>();
+
+    @Override
+    public void put(EntityKey key, Object[] state) {
+        Table table = tables.computeIfAbsent(key.getMetadata().getType(), type -> new Table());
+        int slot = table.index.getOrAllocate(key.getIdentifier());
+        table.ensureCapacity(table.index.slotLimit());
+        table.hashes[slot] = hash(state);
+    }
+
+    @Override
+    public void remove(EntityKey key) {
+        Table table = tables.get(key.getMetadata().getType());
+        if (table != null) {
+            table.index.remove(key.getIdentifier());
+        }
+    }
+
+    @Override
+    public boolean contains(EntityKey key) {
+        Table table = tables.get(key.getMetadata().getType());
+        return table != null && table.index.get(key.getIdentifier()) >= 0;
+    }
+
+    @Override
+    public boolean isDirty(EntityKey key, Object[] currentState) {
+        Table table = tables.get(key.getMetadata().getType());
+        int slot = table == null ? -1 : table.index.get(key.getIdentifier());
+        return slot < 0 || table.hashes[slot] != hash(currentState);
+    }
+
+    @Override
+    public BitSet getDirtyColumns(EntityKey key, Object[] currentState) {
+        return isDirty(key, currentState) ? SnapshotStore.allColumns(currentState) : new BitSet();
+    }
+
+    @Override
+    public int size() {
+        int size = 0;
+        for (Table table : tables.values()) {
+            size += table.index.size();
+        }
+        return size;
+    }
+
+    @Override
+    public void clear() {
+        tables.clear();
+    }
+
+    /**
+     * Mixes 64-bit hashes of the column values with a 64-bit multiplier so that states differing in one column
+     * rarely collide
+     */
+    static long hash(Object[] state) {
+        long hash = state.length;
+        for (Object value : state) {
+            hash = (hash ^ valueHash(value)) * 0x9E3779B97F4A7C15L;
+            hash ^= hash >>> 29;
+        }
+        return hash;
+    }
+
+    /**
+     * 64-bit hash of a column value. Column types with a 32-bit {@code hashCode} that collides on trivial changes
+     * are hashed from their full content, other types fall back to {@code hashCode}.
+     */
+    static long valueHash(Object value) {
+        if (value == null) {
+            return 0x5851F42D4C957F2DL;
+        }
+        if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            return ((Number) value).longValue();
+        }
+        if (value instanceof Double) {
+            return Double.doubleToLongBits((Double) value);
+        }
+        if (value instanceof Float) {
+            return Float.floatToIntBits((Float) value);
+        }
+        if (value instanceof CharSequence) {
+            return charsHash((CharSequence) value);
+        }
+        if (value instanceof BigDecimal) {
+            BigDecimal decimal = (BigDecimal) value;
+            return bytesHash(decimal.unscaledValue().toByteArray()) * 31 + decimal.scale();
+        }
+        if (value instanceof BigInteger) {
+            return bytesHash(((BigInteger) value).toByteArray());
+        }
+        if (value instanceof byte[]) {
+            return bytesHash((byte[]) value);
+        }
+        if (value instanceof Enum) {
+            return ((Enum<?>) value).ordinal();
+        }
+        if (value instanceof LocalDate) {
+            return ((LocalDate) value).toEpochDay();
+        }
+        if (value instanceof LocalDateTime) {
+            LocalDateTime dateTime = (LocalDateTime) value;
+            return dateTime.toLocalDate().toEpochDay() * 0x9E3779B97F4A7C15L + dateTime.toLocalTime().toNanoOfDay();
+        }
+        if (value instanceof Instant) {
+            Instant instant = (Instant) value;
+            return instant.getEpochSecond() * 0x9E3779B97F4A7C15L + instant.getNano();
+        }
+        if (value instanceof Timestamp) {
+            Timestamp timestamp = (Timestamp) value;
+            return timestamp.getTime() * 0x9E3779B97F4A7C15L + timestamp.getNanos();
+        }
+        if (value instanceof Date) {
+            return ((Date) value).getTime();
+        }
+        return value.hashCode();
+    }
+
+    /**
+     * FNV-1a over the UTF-16 chars
+     */
+    private static long charsHash(CharSequence chars) {
+        long hash = 0xCBF29CE484222325L;
+        for (int i = 0; i < chars.length(); i++) {
+            hash = (hash ^ chars.charAt(i)) * 0x100000001B3L;
+        }
+        return hash;
+    }
+
+    /**
+     * FNV-1a over the bytes
+     */
+    private static long bytesHash(byte[] bytes) {
+        long hash = 0xCBF29CE484222325L;
+        for (byte b : bytes) {
+            hash = (hash ^ (b & 0xFF)) * 0x100000001B3L;
+        }
+        return hash;
+    }
+
+    private static final class Table {
+        private final SlotIndex index = new SlotIndex();
+        private long[] hashes = new long[16];
+
+        void ensureCapacity(int slots) {
+            if (slots > hashes.length) {
+                long[] grown = new long[Math.max(slots, hashes.length * 2)];
+                System.arraycopy(hashes, 0, grown, 0, hashes.length);
+                hashes = grown;
+            }
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.anderb.breskulorm.snapshot;
+
+import com.anderb.breskulorm.EntityKey;
+
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Keeps the state array of every entity
+ */
+public class ObjectArraySnapshotStore implements SnapshotStore {
+    private final Map<EntityKey, Object[]> snapshots = new HashMap<>();
+
+    @Override
+    public void put(EntityKey key, Object[] state) {
+        snapshots.put(key, state);
+    }
+
+    @Override
+    public void remove(EntityKey key) {
+        snapshots.remove(key);
+    }
+
+    @Override
+    public boolean contains(EntityKey key) {
+        return snapshots.containsKey(key);
+    }
+
+    @Override
+    public boolean isDirty(EntityKey key, Object[] currentState) {
+        Object[] snapshot = snapshots.get(key);
+        if (snapshot == null) {
+            return true;
+        }
+        for (int i = 0; i < currentState.length; i++) {
+            if (!Objects.equals(snapshot[i], currentState[i])) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public BitSet getDirtyColumns(EntityKey key, Object[] currentState) {
+        Object[] snapshot = snapshots.get(key);
+        if (snapshot == null) {
+            return SnapshotStore.allColumns(currentState);
+        }
+        BitSet dirtyColumns = new BitSet(currentState.length);
+        for (int i = 0; i < currentState.length; i++) {
+            if (!Objects.equals(snapshot[i], currentState[i])) {
+                dirtyColumns.set(i);
+            }
+        }
+        return dirtyColumns;
+    }
+
+    @Override
+    public int size() {
+        return snapshots.size();
+    }
+
+    @Override
+    public void clear() {
+        snapshots.clear();
+    }
+}
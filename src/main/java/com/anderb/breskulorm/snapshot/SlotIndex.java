@@ -0,0 +1,157 @@
+package com.anderb.breskulorm.snapshot;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Assigns dense array slots to the ids of one entity type, freed slots are reused.
+ * {@link Long} ids are kept in an open addressing table of primitive arrays, other ids in a {@link HashMap}.
+ */
+final class SlotIndex {
+    private static final int NO_SLOT = -1;
+
+    /**
+     * Linear probing table, {@code longSlots} holds the slot plus one and {@code 0} marks an empty bucket
+     */
+    private long[] longKeys = new long[16];
+    private int[] longSlots = new int[16];
+    private int longCount;
+    private Map<Object, Integer> otherSlots;
+    private int[] freeSlots = new int[16];
+    private int freeCount;
+    private int slotLimit;
+
+    /**
+     * @return slot of the id or {@code -1}
+     */
+    int get(Object id) {
+        if (id instanceof Long) {
+            int bucket = findBucket((Long) id);
+            return longSlots[bucket] == 0 ? NO_SLOT : longSlots[bucket] - 1;
+        }
+        Integer slot = otherSlots == null ? null : otherSlots.get(id);
+        return slot == null ? NO_SLOT : slot;
+    }
+
+    /**
+     * @return slot of the id, a new one if the id has none
+     */
+    int getOrAllocate(Object id) {
+        if (id instanceof Long) {
+            long key = (Long) id;
+            int bucket = findBucket(key);
+            if (longSlots[bucket] != 0) {
+                return longSlots[bucket] - 1;
+            }
+            int slot = allocateSlot();
+            longKeys[bucket] = key;
+            longSlots[bucket] = slot + 1;
+            if (++longCount > longKeys.length * 3 / 5) {
+                rehash(longKeys.length * 2);
+            }
+            return slot;
+        }
+        if (otherSlots == null) {
+            otherSlots = new HashMap<>();
+        }
+        return otherSlots.computeIfAbsent(id, ignored -> allocateSlot());
+    }
+
+    /**
+     * @return freed slot of the id or {@code -1}
+     */
+    int remove(Object id) {
+        int slot;
+        if (id instanceof Long) {
+            int bucket = findBucket((Long) id);
+            if (longSlots[bucket] == 0) {
+                return NO_SLOT;
+            }
+            slot = longSlots[bucket] - 1;
+            deleteBucket(bucket);
+            longCount--;
+        } else {
+            Integer removed = otherSlots == null ? null : otherSlots.remove(id);
+            if (removed == null) {
+                return NO_SLOT;
+            }
+            slot = removed;
+        }
+        if (freeCount == freeSlots.length) {
+            int[] grown = new int[freeSlots.length * 2];
+            System.arraycopy(freeSlots, 0, grown, 0, freeCount);
+            freeSlots = grown;
+        }
+        freeSlots[freeCount++] = slot;
+        return slot;
+    }
+
+    int size() {
+        return longCount + (otherSlots == null ? 0 : otherSlots.size());
+    }
+
+    /**
+     * @return upper bound of the slots handed out so far, arrays indexed by slot need this length
+     */
+    int slotLimit() {
+        return slotLimit;
+    }
+
+    private int allocateSlot() {
+        return freeCount > 0 ? freeSlots[--freeCount] : slotLimit++;
+    }
+
+    private int findBucket(long key) {
+        int mask = longKeys.length - 1;
+        int bucket = home(key, mask);
+        while (longSlots[bucket] != 0 && longKeys[bucket] != key) {
+            bucket = (bucket + 1) & mask;
+        }
+        return bucket;
+    }
+
+    /**
+     * Backward shift deletion, keeps probe sequences intact without tombstones
+     */
+    private void deleteBucket(int bucket) {
+        int mask = longKeys.length - 1;
+        int hole = bucket;
+        int next = bucket;
+        while (true) {
+            next = (next + 1) & mask;
+            if (longSlots[next] == 0) {
+                break;
+            }
+            int home = home(longKeys[next], mask);
+            boolean movable = next > hole ? (home <= hole || home > next) : (home <= hole && home > next);
+            if (movable) {
+                longKeys[hole] = longKeys[next];
+                longSlots[hole] = longSlots[next];
+                hole = next;
+            }
+        }
+        longSlots[hole] = 0;
+    }
+
+    private void rehash(int capacity) {
+        long[] oldKeys = longKeys;
+        int[] oldSlots = longSlots;
+        longKeys = new long[capacity];
+        longSlots = new int[capacity];
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldSlots[i] != 0) {
+                int bucket = findBucket(oldKeys[i]);
+                longKeys[bucket] = oldKeys[i];
+                longSlots[bucket] = oldSlots[i];
+            }
+        }
+    }
+
+    /**
+     * Spreads high bits like {@link HashMap} but keeps sequential ids in neighbouring buckets
+     */
+    private static int home(long key, int mask) {
+        int hash = (int) (key ^ (key >>> 32));
+        return (hash ^ (hash >>> 16)) & mask;
+    }
+}
@@ -0,0 +1,44 @@
+package com.anderb.breskulorm.snapshot;
+
+import com.anderb.breskulorm.EntityKey;
+
+import java.util.BitSet;
+
+/**
+ * Loaded state of the entities managed by a {@link com.anderb.breskulorm.Session}, used for dirty checking.
+ * States are passed as returned by {@link com.anderb.breskulorm.Session#toSnapshot}, column indexes follow
+ * {@link com.anderb.breskulorm.EntityMetadata#getStateColumnNames()}. Created by a {@link SnapshotStrategy}.
+ */
+public interface SnapshotStore {
+
+    void put(EntityKey key, Object[] state);
+
+    void remove(EntityKey key);
+
+    boolean contains(EntityKey key);
+
+    /**
+     * @return whether the state differs from the snapshot, {@code true} when there is no snapshot
+     */
+    boolean isDirty(EntityKey key, Object[] currentState);
+
+    /**
+     * @return indexes of the columns that differ from the snapshot, all columns when there is no snapshot
+     * or the store cannot tell which columns changed
+     */
+    BitSet getDirtyColumns(EntityKey key, Object[] currentState);
+
+    int size();
+
+    default boolean isEmpty() {
+        return size() == 0;
+    }
+
+    void clear();
+
+    static BitSet allColumns(Object[] state) {
+        BitSet columns = new BitSet(state.length);
+        columns.set(0, state.length);
+        return columns;
+    }
+}
@@ -0,0 +1,32 @@
+package com.anderb.breskulorm.snapshot;
+
+import java.util.function.Supplier;
+
+/**
+ * How sessions keep entity snapshots, see {@link com.anderb.breskulorm.SessionFactoryConfigs#getSnapshotStrategy()}
+ */
+public enum SnapshotStrategy {
+    /**
+     * Copy of the state array per entity, the fastest dirty check
+     */
+    OBJECT_ARRAY(ObjectArraySnapshotStore::new),
+    /**
+     * Columns of all entities of a type packed into arrays, numeric and boolean values as primitives
+     */
+    COLUMNAR(ColumnarSnapshotStore::new),
+    /**
+     * 64-bit hash of the state per entity, for read-mostly sessions. A changed entity is updated in full and
+     * a hash collision hides a change, which is unlikely but possible.
+     */
+    HASH(HashSnapshotStore::new);
+
+    private final Supplier<SnapshotStore> storeFactory;
+
+    SnapshotStrategy(Supplier<SnapshotStore> storeFactory) {
+        this.storeFactory = storeFactory;
+    }
+
+    public SnapshotStore newStore() {
+        return storeFactory.get();
+    }
+}
@@ -0,0 +1,81 @@
+package com.anderb.breskulorm.stat;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters of one entity type, see {@link Statistics#getEntityStatistics(Class)}
+ */
+public class EntityStatistics {
+    private final LongAdder loadCount = new LongAdder();
+    private final LongAdder insertCount = new LongAdder();
+    private final LongAdder updateCount = new LongAdder();
+    private final LongAdder deleteCount = new LongAdder();
+    private final LongAdder cacheHitCount = new LongAdder();
+    private final LongAdder cacheMissCount = new LongAdder();
+
+    /**
+     * @return entities read from the database by id
+     */
+    public long getLoadCount() {
+        return loadCount.sum();
+    }
+
+    public long getInsertCount() {
+        return insertCount.sum();
+    }
+
+    public long getUpdateCount() {
+        return updateCount.sum();
+    }
+
+    public long getDeleteCount() {
+        return deleteCount.sum();
+    }
+
+    /**
+     * @return entities found in the second-level cache
+     */
+    public long getCacheHitCount() {
+        return cacheHitCount.sum();
+    }
+
+    /**
+     * @return lookups of cacheable entities that went to the database
+     */
+    public long getCacheMissCount() {
+        return cacheMissCount.sum();
+    }
+
+    void clear() {
+        loadCount.reset();
+        insertCount.reset();
+        updateCount.reset();
+        deleteCount.reset();
+        cacheHitCount.reset();
+        cacheMissCount.reset();
+    }
+
+    LongAdder loadCount() {
+        return loadCount;
+    }
+
+    LongAdder insertCount() {
+        return insertCount;
+    }
+
+    LongAdder updateCount() {
+        return updateCount;
+    }
+
+    LongAdder deleteCount() {
+        return deleteCount;
+    }
+
+    LongAdder cacheHitCount() {
+        return cacheHitCount;
+    }
+
+    LongAdder cacheMissCount() {
+        return cacheMissCount;
+    }
+}
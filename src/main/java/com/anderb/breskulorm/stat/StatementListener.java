@@ -0,0 +1,17 @@
+package com.anderb.breskulorm.stat;
+
+/**
+ * Notified after each statement {@link com.anderb.breskulorm.EntityPersister} executes, for example to log
+ * slow queries. Registered with {@link com.anderb.breskulorm.SessionFactoryConfigs#getStatementListeners()},
+ * called on the thread of the session, so implementations must be thread-safe and fast.
+ */
+@FunctionalInterface
+public interface StatementListener {
+
+    /**
+     * @param sql            executed SQL
+     * @param parameterCount number of bound parameters, of all rows for a batch
+     * @param elapsedNanos   execution time, excluding the binding of parameters and reading of results
+     */
+    void onStatement(String sql, int parameterCount, long elapsedNanos);
+}
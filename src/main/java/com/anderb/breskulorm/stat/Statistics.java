@@ -0,0 +1,178 @@
+package com.anderb.breskulorm.stat;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters of a {@link com.anderb.breskulorm.SessionFactory}, shared by all its sessions.
+ * Counters are striped {@link java.util.concurrent.atomic.LongAdder}s, when statistics are disabled
+ * recording methods return immediately and the factory does not time statements.
+ */
+public class Statistics implements StatementListener {
+    private final boolean enabled;
+    private final Map<Class<?>, EntityStatistics> entityStatistics = new ConcurrentHashMap<>();
+    private final Histogram flushDurations = new Histogram();
+    private final Histogram statementDurations = new Histogram();
+    private final LongAdder queryPlanCacheHitCount = new LongAdder();
+    private final LongAdder queryPlanCacheMissCount = new LongAdder();
+    private final LongAdder queryCacheHitCount = new LongAdder();
+    private final LongAdder queryCacheMissCount = new LongAdder();
+    private final LongAdder queryCachePutCount = new LongAdder();
+
+    public Statistics(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * @return counters of the entity type, all zero if nothing was recorded for it
+     */
+    public EntityStatistics getEntityStatistics(Class<?> type) {
+        return entityStatistics.computeIfAbsent(type, ignored -> new EntityStatistics());
+    }
+
+    /**
+     * @return counters of the entity types recorded so far
+     */
+    public Map<Class<?>, EntityStatistics> getEntityStatistics() {
+        return Collections.unmodifiableMap(entityStatistics);
+    }
+
+    public long getFlushCount() {
+        return flushDurations.getCount();
+    }
+
+    /**
+     * @return durations of {@link com.anderb.breskulorm.Session#flush()} calls, including explicit ones
+     * and the flush on close
+     */
+    public Histogram getFlushDurations() {
+        return flushDurations;
+    }
+
+    public long getStatementCount() {
+        return statementDurations.getCount();
+    }
+
+    /**
+     * @return durations of the statements executed by {@link com.anderb.breskulorm.EntityPersister}
+     */
+    public Histogram getStatementDurations() {
+        return statementDurations;
+    }
+
+    public long getQueryPlanCacheHitCount() {
+        return queryPlanCacheHitCount.sum();
+    }
+
+    public long getQueryPlanCacheMissCount() {
+        return queryPlanCacheMissCount.sum();
+    }
+
+    public long getQueryCacheHitCount() {
+        return queryCacheHitCount.sum();
+    }
+
+    public long getQueryCacheMissCount() {
+        return queryCacheMissCount.sum();
+    }
+
+    public long getQueryCachePutCount() {
+        return queryCachePutCount.sum();
+    }
+
+    public void clear() {
+        entityStatistics.values().forEach(EntityStatistics::clear);
+        flushDurations.clear();
+        statementDurations.clear();
+        queryPlanCacheHitCount.reset();
+        queryPlanCacheMissCount.reset();
+        queryCacheHitCount.reset();
+        queryCacheMissCount.reset();
+        queryCachePutCount.reset();
+    }
+
+    public void loaded(Class<?> type, int count) {
+        if (enabled) {
+            getEntityStatistics(type).loadCount().add(count);
+        }
+    }
+
+    public void inserted(Class<?> type, int count) {
+        if (enabled) {
+            getEntityStatistics(type).insertCount().add(count);
+        }
+    }
+
+    public void updated(Class<?> type, int count) {
+        if (enabled) {
+            getEntityStatistics(type).updateCount().add(count);
+        }
+    }
+
+    public void deleted(Class<?> type, int count) {
+        if (enabled) {
+            getEntityStatistics(type).deleteCount().add(count);
+        }
+    }
+
+    public void cacheHit(Class<?> type) {
+        if (enabled) {
+            getEntityStatistics(type).cacheHitCount().increment();
+        }
+    }
+
+    public void cacheMiss(Class<?> type) {
+        if (enabled) {
+            getEntityStatistics(type).cacheMissCount().increment();
+        }
+    }
+
+    public void queryPlanCacheHit() {
+        if (enabled) {
+            queryPlanCacheHitCount.increment();
+        }
+    }
+
+    public void queryPlanCacheMiss() {
+        if (enabled) {
+            queryPlanCacheMissCount.increment();
+        }
+    }
+
+    public void queryCacheHit() {
+        if (enabled) {
+            queryCacheHitCount.increment();
+        }
+    }
+
+    public void queryCacheMiss() {
+        if (enabled) {
+            queryCacheMissCount.increment();
+        }
+    }
+
+    public void queryCachePut() {
+        if (enabled) {
+            queryCachePutCount.increment();
+        }
+    }
+
+    public void flushed(long elapsedNanos) {
+        if (enabled) {
+            flushDurations.record(elapsedNanos);
+        }
+    }
+
+    @Override
+    public void onStatement(String sql, int parameterCount, long elapsedNanos) {
+        if (enabled) {
+            statementDurations.record(elapsedNanos);
+        }
+    }
+}
@@ -2,6 +2,8 @@ package com.anderb.breskulorm;
 
 import com.anderb.breskulorm.annotation.*;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
 
 import static com.anderb.breskulorm.annotation.GenerationType.IDENTITY;
 
@@ -18,4 +20,20 @@ public class Address {
     @Column("city")
     private String city;
 
+    @Column("address_type")
+    private AddressType type;
+
+    @Convert(YesNoConverter.class)
+    @Column("verified")
+    private Boolean verified;
+
+    @ManyToOne("person_id")
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private Person person;
+
+    public enum AddressType {
+        HOME, WORK
+    }
+
 }
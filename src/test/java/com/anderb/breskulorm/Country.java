@@ -0,0 +1,21 @@
+package com.anderb.breskulorm;
+
+import com.anderb.breskulorm.annotation.*;
+import lombok.Data;
+
+@Data
+@Entity
+@Cacheable(maxEntries = 100)
+@Table("countries")
+public class Country {
+    @Id(generatedValue = GenerationType.SEQUENCE, sequenceName = "country_sequence", allocationSize = 5)
+    private Long id;
+
+    @Column("name")
+    private String name;
+
+    @Version
+    @Column("version")
+    private Long version;
+
+}
@@ -0,0 +1,23 @@
+package com.anderb.breskulorm;
+
+import com.anderb.breskulorm.annotation.*;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+
+@Data
+@Entity
+@Table("parcels")
+public class Parcel {
+    @Id(generatedValue = GenerationType.SEQUENCE)
+    private Long id;
+
+    @Column("label")
+    private String label;
+
+    @ManyToOne("address_id")
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private Address address;
+
+}
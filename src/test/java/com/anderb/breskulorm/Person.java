@@ -2,6 +2,10 @@ package com.anderb.breskulorm;
 
 import com.anderb.breskulorm.annotation.*;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+
+import java.util.List;
 
 @Data
 @Entity
@@ -16,4 +20,9 @@ public class Person {
     @Column("last_name")
     private String lastName;
 
+    @OneToMany(mappedBy = "person")
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private List<Address> addresses;
+
 }
@@ -2,11 +2,35 @@ package com.anderb.breskulorm;
 
 import com.anderb.breskulcp.BreskulCPDataSource;
 import com.anderb.breskulcp.DataSourceConfigs;
+import com.anderb.breskulorm.exception.OrmException;
+import com.anderb.breskulorm.exception.StaleStateException;
+import com.anderb.breskulorm.snapshot.SnapshotStrategy;
+import com.anderb.breskulorm.stat.EntityStatistics;
+import com.anderb.breskulorm.stat.Statistics;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.io.Serializable;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
 import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
 
+import static com.anderb.breskulorm.query.Operator.*;
+import static java.util.stream.Collectors.toList;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
@@ -28,7 +52,7 @@ class SessionTest {
         spyDataSource = new BreskulCPDataSource(configs);
         prepareDB(spyDataSource);
         spyDataSource = spy(spyDataSource);
-        subject = new SessionFactory(spyDataSource, Person.class, Address.class);
+        subject = new SessionFactory(spyDataSource, Person.class, Address.class, Country.class);
     }
 
     @Test
@@ -77,16 +101,50 @@ class SessionTest {
     }
 
     @Test
-    void persist_whenPersistEntityWithIdentityGenerationType_shouldSaveInDBImmediately() {
+    void persist_whenPersistEntityWithIdentityGenerationType_shouldInsertOnFlushAndAssignGeneratedId() {
         Session session = subject.createSession();
         Address address = new Address();
         address.setAddressLine("New Address Line");
         address.setCity("New York");
         session.persist(address);
+        assertNull(address.getId());
+        assertFalse(session.getPersistenceContext().containsValue(address));
+        session.flush();
         assertNotNull(address.getId());
+        assertSame(address, session.getPersistenceContext().get(EntityKey.of(address.getId(),
+                subject.getMetadataResolver().getEntityMetadata(Address.class))));
         session.close();
     }
 
+    @Test
+    void flush_whenSeveralIdentityEntitiesPersisted_shouldInsertThemWithMultiRowInserts() throws SQLException {
+        Connection[] connection = new Connection[1];
+        doAnswer(invocation -> connection[0] = spy((Connection) invocation.callRealMethod()))
+                .when(spyDataSource).getConnection();
+        EntityMetadata metadata = subject.getMetadataResolver().getEntityMetadata(Address.class);
+        Session session = subject.createSession();
+        List<Address> addresses = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            Address address = new Address();
+            address.setAddressLine("Line " + i);
+            address.setCity("City " + i);
+            session.persist(address);
+            addresses.add(address);
+        }
+        session.delete(addresses.remove(5));
+        Serializable firstId = session.getIdentifier(addresses.get(0));
+        session.close();
+
+        verify(connection[0]).prepareStatement(metadata.getInsertSql(4), Statement.RETURN_GENERATED_KEYS);
+        verify(connection[0]).prepareStatement(metadata.getInsertSql(1), Statement.RETURN_GENERATED_KEYS);
+        assertEquals(addresses.get(0).getId(), firstId);
+        Session session2 = subject.createSession();
+        for (Address address : addresses) {
+            assertEquals(address.getCity(), session2.find(Address.class, address.getId()).getCity());
+        }
+        session2.close();
+    }
+
     @Test
     void persist_whenPersistEntityWithSequenceGenerationType_shouldGenerateIdBeforeFlushToDB() {
         Session session = subject.createSession();
@@ -114,6 +172,698 @@ class SessionTest {
         session.close();
     }
 
+    @Test
+    void flush_whenJdbcBatchSizeConfigured_shouldInsertUpdateAndDeleteInBatches() throws SQLException {
+        Map<String, PreparedStatement> statements = spyPreparedStatements();
+        SessionFactory batchingFactory = new SessionFactory(
+                spyDataSource, SessionFactoryConfigs.builder().jdbcBatchSize(2).build(), Person.class, Address.class);
+        Session session = batchingFactory.createSession();
+        Person[] persons = new Person[5];
+        for (int i = 0; i < persons.length; i++) {
+            persons[i] = new Person();
+            persons[i].setFirstName("Batch " + i);
+            persons[i].setLastName("Person " + i);
+            session.persist(persons[i]);
+        }
+        Person existing = session.find(Person.class, 1L);
+        existing.setLastName("Batched");
+        session.delete(session.find(Person.class, 3L));
+        session.close();
+
+        EntityMetadata metadata = batchingFactory.getMetadataResolver().getEntityMetadata(Person.class);
+        PreparedStatement insert = statements.get(metadata.getInsertSql());
+        verify(insert, times(5)).addBatch();
+        verify(insert, times(3)).executeBatch();
+        verify(insert, never()).executeUpdate();
+        PreparedStatement update = statements.get("UPDATE persons SET last_name=? WHERE id=?");
+        verify(update, times(1)).addBatch();
+        verify(update, times(1)).executeBatch();
+        verify(update, never()).executeUpdate();
+        PreparedStatement delete = statements.get(metadata.getDeleteSql());
+        verify(delete, times(1)).executeBatch();
+        verify(delete, never()).executeUpdate();
+
+        Session session2 = subject.createSession();
+        for (Person person : persons) {
+            assertEquals(person.getFirstName(), session2.find(Person.class, person.getId()).getFirstName());
+        }
+        assertEquals("Batched", session2.find(Person.class, 1L).getLastName());
+        assertNull(session2.find(Person.class, 3L));
+        session2.close();
+    }
+
+    @Test
+    void flush_whenBatchedUpdateAffectsNoRows_shouldThrowOrmException() throws Exception {
+        Session session = subject.createSession();
+        session.setJdbcBatchSize(10);
+        Person person = session.find(Person.class, 1L);
+        person.setFirstName("Changed");
+        try (var stm = session.getConnection().createStatement()) {
+            stm.execute("DELETE FROM persons WHERE id = 1");
+        }
+        assertThrows(OrmException.class, session::flush);
+        assertThrows(OrmException.class, session::close);
+    }
+
+    @Test
+    void flush_whenVersionedEntityUpdatedExplicitlyInBatch_shouldWriteItOnce() {
+        Session session = subject.createSession();
+        session.setJdbcBatchSize(10);
+        Country ukraine = session.find(Country.class, 1L);
+        ukraine.setName("Ukraina");
+        session.update(ukraine);
+        session.update(ukraine);
+        session.flush();
+        session.close();
+        assertEquals(1L, ukraine.getVersion());
+
+        Session session2 = subject.createSession();
+        Country reloaded = session2.find(Country.class, 1L);
+        assertEquals("Ukraina", reloaded.getName());
+        assertEquals(1L, reloaded.getVersion());
+        session2.close();
+    }
+
+    @Test
+    void flush_whenInsertReferencesPendingIdentityInsert_shouldWriteReferencedEntityFirst() {
+        SessionFactory factory = new SessionFactory(spyDataSource, SessionFactoryConfigs.builder().jdbcBatchSize(10)
+                .build(), Person.class, Address.class, Parcel.class);
+        Session session = factory.createSession();
+        Address address = new Address();
+        address.setAddressLine("Line");
+        address.setCity("Lviv");
+        session.persist(address);
+        Parcel parcel = new Parcel();
+        parcel.setLabel("Books");
+        parcel.setAddress(address);
+        session.persist(parcel);
+        session.close();
+
+        Session session2 = factory.createSession();
+        Parcel reloaded = session2.find(Parcel.class, parcel.getId());
+        assertEquals(address.getId(), reloaded.getAddress().getId());
+        assertEquals("Lviv", reloaded.getAddress().getCity());
+        session2.close();
+    }
+
+    @Test
+    void flush_whenVersionedDataNotBatched_shouldVerifyEachVersionOnDriverWithoutBatchRowCounts()
+            throws SQLException {
+        doAnswer(invocation -> {
+            Connection connection = spy((Connection) invocation.callRealMethod());
+            doAnswer(prepare -> {
+                PreparedStatement stm = spy((PreparedStatement) prepare.callRealMethod());
+                doAnswer(execute -> {
+                    int[] rowCounts = (int[]) execute.callRealMethod();
+                    Arrays.fill(rowCounts, Statement.SUCCESS_NO_INFO);
+                    return rowCounts;
+                }).when(stm).executeBatch();
+                return stm;
+            }).when(connection).prepareStatement(anyString());
+            return connection;
+        }).when(spyDataSource).getConnection();
+        SessionFactory factory = new SessionFactory(spyDataSource, SessionFactoryConfigs.builder()
+                .jdbcBatchSize(10)
+                .batchVersionedData(false)
+                .build(), Country.class);
+        Session session = factory.createSession();
+        List<Country> countries = session.findAll(Country.class, List.of(1L, 2L));
+        countries.forEach(country -> country.setName("Verified"));
+        session.flush();
+        assertEquals(List.of(1L, 1L), countries.stream().map(Country::getVersion).collect(toList()));
+        bumpCountryVersion(session, 1L);
+        countries.get(0).setName("Stale");
+        assertThrows(StaleStateException.class, session::close);
+    }
+
+    @Test
+    void find_whenLoadingSeveralEntities_shouldReuseCachedStatementAndCloseItWithSession() throws SQLException {
+        Session session = subject.createSession();
+        session.find(Person.class, 1L);
+        session.find(Person.class, 2L);
+        String findByIdSql = subject.getMetadataResolver().getEntityMetadata(Person.class).getFindByIdSql();
+        var statement = session.getStatementCache().prepare(findByIdSql);
+        assertEquals(1, session.getStatementCache().size());
+        session.close();
+        assertTrue(statement.isClosed());
+    }
+
+    @Test
+    void persist_whenSameInstancePersistedTwice_shouldQueueSingleInsert() {
+        Session session = subject.createSession();
+        Person person = new Person();
+        person.setFirstName("Twice");
+        person.setLastName("Persisted");
+        session.persist(person);
+        session.persist(person);
+        assertEquals(1, session.getActionQueue().getInsertions().size());
+        assertEquals(person.getId(), session.getEntityKey(person).getIdentifier());
+        session.close();
+    }
+
+    @Test
+    void find_whenEntityFoundTwice_shouldReturnSameManagedInstance() {
+        Session session = subject.createSession();
+        Person person = session.find(Person.class, 1L);
+        assertSame(person, session.find(Person.class, 1L));
+        assertEquals(1, session.getPersistenceContext().size());
+        session.close();
+    }
+
+    @Test
+    void delete_whenEntityDetachedByClear_shouldThrowIllegalArgumentException() {
+        Session session = subject.createSession();
+        Person person = session.find(Person.class, 1L);
+        session.clear();
+        assertNull(session.getEntityKey(person));
+        assertThrows(IllegalArgumentException.class, () -> session.delete(person));
+        session.close();
+    }
+
+    @Test
+    void find_whenEntityCacheable_shouldAssembleItFromSecondLevelCacheInNextSession() throws SQLException {
+        Session session = subject.createSession();
+        Country country = session.find(Country.class, 1L);
+        session.close();
+        try (var conn = spyDataSource.getConnection(); var stm = conn.createStatement()) {
+            stm.execute("UPDATE countries SET name = 'Changed outside' WHERE id = 1");
+        }
+
+        Session session2 = subject.createSession();
+        Country cached = session2.find(Country.class, 1L);
+        assertNotSame(country, cached);
+        assertEquals("Ukraine", cached.getName());
+        session2.close();
+    }
+
+    @Test
+    void createSession_whenReadOnly_shouldNeitherSnapshotNorWriteAndShareCachedEntities() throws SQLException {
+        Connection[] connection = new Connection[1];
+        doAnswer(invocation -> connection[0] = spy((Connection) invocation.callRealMethod()))
+                .when(spyDataSource).getConnection();
+        Session session = subject.createSession(true);
+        session.find(Person.class, 1L).setFirstName("Ignored");
+        Country country = session.find(Country.class, 1L);
+        assertTrue(session.getSnapshots().isEmpty());
+        assertThrows(IllegalStateException.class, () -> session.persist(new Person()));
+        session.close();
+
+        verify(connection[0]).setReadOnly(true);
+        verify(connection[0]).setReadOnly(false);
+        verify(connection[0], never()).prepareStatement(startsWith("UPDATE"));
+        Session session2 = subject.createSession(true);
+        Country shared = session2.find(Country.class, 1L);
+        session2.close();
+        Session session3 = subject.createSession(true);
+        assertSame(shared, session3.find(Country.class, 1L));
+        assertEquals(country.getName(), shared.getName());
+        assertNotEquals("Ignored", session3.find(Person.class, 1L).getFirstName());
+        session3.close();
+    }
+
+    @Test
+    void close_whenCacheableEntityUpdated_shouldEvictItFromSecondLevelCacheOnCommit() {
+        Session session = subject.createSession();
+        Country country = session.find(Country.class, 2L);
+        country.setName("Polska");
+        session.close();
+
+        Session session2 = subject.createSession();
+        assertEquals("Polska", session2.find(Country.class, 2L).getName());
+        session2.close();
+    }
+
+    @Test
+    void persist_whenSequenceHasAllocationSize_shouldShareReservedIdBlocksBetweenSessions() throws SQLException {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            Session session = subject.createSession();
+            for (int j = 0; j < 3; j++) {
+                Country country = new Country();
+                country.setName("Country " + i + j);
+                session.persist(country);
+                ids.add(country.getId());
+            }
+            session.close();
+        }
+        assertEquals(List.of(10L, 11L, 12L, 13L, 14L, 15L), ids);
+        try (var conn = spyDataSource.getConnection();
+             var stm = conn.createStatement();
+             var rs = stm.executeQuery("call next value for country_sequence")) {
+            rs.next();
+            assertEquals(20L, rs.getLong(1));
+        }
+    }
+
+    @Test
+    void close_whenOneOfLoadedEntitiesChanged_shouldUpdateOnlyItsChangedColumns() throws SQLException {
+        Connection[] connection = new Connection[1];
+        doAnswer(invocation -> connection[0] = spy((Connection) invocation.callRealMethod()))
+                .when(spyDataSource).getConnection();
+        Session session = subject.createSession();
+        session.findAll(Person.class, List.of(1L, 2L, 3L)).get(1).setFirstName("Changed");
+        session.close();
+
+        verify(connection[0]).prepareStatement("UPDATE persons SET first_name=? WHERE id=?");
+        verify(connection[0], never()).prepareStatement(
+                subject.getMetadataResolver().getEntityMetadata(Person.class).getUpdateSql());
+        Session session2 = subject.createSession();
+        Person person = session2.find(Person.class, 2L);
+        assertEquals("Changed", person.getFirstName());
+        assertEquals("Petrov", person.getLastName());
+        session2.close();
+    }
+
+    @Test
+    void close_whenSnapshotsPackedOrHashed_shouldUpdateOnlyChangedEntities() throws SQLException {
+        Connection[] connection = new Connection[1];
+        doAnswer(invocation -> connection[0] = spy((Connection) invocation.callRealMethod()))
+                .when(spyDataSource).getConnection();
+        EntityMetadata metadata = subject.getMetadataResolver().getEntityMetadata(Person.class);
+        for (SnapshotStrategy strategy : List.of(SnapshotStrategy.COLUMNAR, SnapshotStrategy.HASH)) {
+            SessionFactoryConfigs configs = SessionFactoryConfigs.builder().snapshotStrategy(strategy).build();
+            SessionFactory factory = new SessionFactory(spyDataSource, configs, Person.class);
+            Session session = factory.createSession();
+            List<Person> persons = session.findAll(Person.class, List.of(1L, 2L, 3L));
+            assertEquals(3, session.getSnapshots().size());
+            persons.get(2).setLastName(strategy.name());
+            session.close();
+
+            String expectedSql = strategy == SnapshotStrategy.COLUMNAR
+                    ? "UPDATE persons SET last_name=? WHERE id=?"
+                    : metadata.getUpdateSql();
+            verify(connection[0]).prepareStatement(expectedSql);
+            verify(connection[0], times(1)).prepareStatement(startsWith("UPDATE"));
+            Session session2 = factory.createSession();
+            assertEquals(strategy.name(), session2.find(Person.class, 3L).getLastName());
+            session2.close();
+        }
+    }
+
+    @Test
+    void close_whenHashedColumnChangesToValueWithEqualHashCode_shouldUpdateEntity() {
+        SessionFactoryConfigs configs = SessionFactoryConfigs.builder().snapshotStrategy(SnapshotStrategy.HASH).build();
+        SessionFactory factory = new SessionFactory(spyDataSource, configs, Person.class);
+        assertEquals("Aa".hashCode(), "BB".hashCode());
+        Session session = factory.createSession();
+        session.find(Person.class, 1L).setLastName("Aa");
+        session.close();
+
+        Session session2 = factory.createSession();
+        session2.find(Person.class, 1L).setLastName("BB");
+        session2.close();
+
+        Session session3 = factory.createSession();
+        assertEquals("BB", session3.find(Person.class, 1L).getLastName());
+        session3.close();
+    }
+
+    @Test
+    void getStatistics_whenEnabled_shouldCountEntityOperationsFlushesAndReportStatements() {
+        List<String> statements = new ArrayList<>();
+        SessionFactoryConfigs configs = SessionFactoryConfigs.builder()
+                .statisticsEnabled(true)
+                .statementListener((sql, parameterCount, elapsedNanos) -> statements.add(sql + " " + parameterCount))
+                .build();
+        SessionFactory factory = new SessionFactory(spyDataSource, configs, Person.class, Country.class);
+        for (int i = 0; i < 2; i++) {
+            Session session = factory.createSession();
+            session.find(Country.class, 1L);
+            session.find(Person.class, 1L).setFirstName("Counted" + i);
+            session.close();
+        }
+
+        Statistics statistics = factory.getStatistics();
+        EntityStatistics persons = statistics.getEntityStatistics(Person.class);
+        EntityStatistics countries = statistics.getEntityStatistics(Country.class);
+        assertEquals(2, persons.getLoadCount());
+        assertEquals(2, persons.getUpdateCount());
+        assertEquals(1, countries.getLoadCount());
+        assertEquals(1, countries.getCacheMissCount());
+        assertEquals(1, countries.getCacheHitCount());
+        assertEquals(2, statistics.getFlushCount());
+        assertEquals(5, statistics.getStatementCount());
+        assertTrue(statements.contains("UPDATE persons SET first_name=? WHERE id=? 2"));
+        assertTrue(statistics.getFlushDurations().getPercentileNanos(50) > 0);
+    }
+
+    @Test
+    void asyncSession_whenCallsQueued_shouldRunThemInOrderOnExecutor() {
+        List<String> threads = new ArrayList<>();
+        ExecutorService executor = Executors.newSingleThreadExecutor(task -> new Thread(task, "orm-async-test"));
+        SessionFactoryConfigs configs = SessionFactoryConfigs.builder().asyncExecutor(executor).build();
+        SessionFactory factory = new SessionFactory(spyDataSource, configs, Person.class);
+        AsyncSession session = factory.openAsyncSession();
+
+        CompletableFuture<Person> found = session.find(Person.class, 1L);
+        CompletableFuture<Void> committed = found
+                .thenAccept(person -> person.setFirstName("Async"))
+                .thenCompose(ignored -> session.commit());
+        committed.join();
+        session.submit(sync -> threads.add(Thread.currentThread().getName())).join();
+        session.close().join();
+
+        assertEquals(List.of("orm-async-test"), threads);
+        Session session2 = factory.createSession();
+        assertEquals("Async", session2.find(Person.class, 1L).getFirstName());
+        session2.close();
+        assertThrows(CompletionException.class, () -> session.find(Person.class, 1L).join());
+        executor.shutdown();
+    }
+
+    @Test
+    void asyncSession_whenExecutorRejectsTasks_shouldCompleteQueuedCallsExceptionally() throws SQLException {
+        ExecutorService shutDown = Executors.newSingleThreadExecutor();
+        shutDown.shutdown();
+        AsyncSession session = new SessionFactory(spyDataSource,
+                SessionFactoryConfigs.builder().asyncExecutor(shutDown).build(), Person.class).openAsyncSession();
+        CompletionException rejected = assertThrows(CompletionException.class,
+                () -> session.find(Person.class, 1L).join());
+        assertTrue(rejected.getCause() instanceof RejectedExecutionException);
+
+        List<Runnable> accepted = new ArrayList<>();
+        Executor shuttingDown = task -> {
+            if (!accepted.isEmpty()) {
+                throw new RejectedExecutionException("Executor is shut down");
+            }
+            accepted.add(task);
+        };
+        AsyncSession session2 = new SessionFactory(spyDataSource,
+                SessionFactoryConfigs.builder().asyncExecutor(shuttingDown).build(), Person.class).openAsyncSession();
+        CompletableFuture<Void> closed = session2.close();
+        CompletableFuture<Person> queued = session2.find(Person.class, 1L);
+        accepted.get(0).run();
+        closed.join();
+        CompletionException queuedRejected = assertThrows(CompletionException.class, queued::join);
+        assertTrue(queuedRejected.getCause() instanceof RejectedExecutionException);
+        assertThrows(CompletionException.class, () -> session2.find(Person.class, 1L).join());
+        verify(spyDataSource, never()).getConnection();
+    }
+
+    @Test
+    void sessionFactory_whenPackageScanned_shouldRegisterEntitiesFoundOnClasspath() {
+        SessionFactoryConfigs configs = SessionFactoryConfigs.builder()
+                .packageToScan("com.anderb.breskulorm")
+                .build();
+        SessionFactory factory = new SessionFactory(spyDataSource, configs);
+        Session session = factory.createSession();
+
+        assertEquals("Ivan", session.find(Person.class, 2L).getFirstName());
+        session.close();
+        assertThrows(OrmException.class, () -> factory.getMetadataResolver().getEntityMetadata(String.class));
+        EntityMetadataResolver personsOnly = new SessionFactory(spyDataSource, Person.class).getMetadataResolver();
+        EntityMetadata lazilyRegistered = personsOnly.getEntityMetadata(Country.class);
+        assertSame(lazilyRegistered, personsOnly.getEntityMetadata(Country.class));
+    }
+
+    @Test
+    void createQuery_whenSameShapeQueriedTwice_shouldReuseCachedPlanAndReturnManagedEntities() {
+        SessionFactoryConfigs configs = SessionFactoryConfigs.builder().statisticsEnabled(true).build();
+        SessionFactory factory = new SessionFactory(spyDataSource, configs, Person.class);
+        Session session = factory.createSession();
+        Person ivan = session.find(Person.class, 2L);
+
+        Person petrov = session.createQuery(Person.class).where("lastName", EQ, "Petrov").getSingleResult();
+        List<String> names = session.createQuery(Person.class)
+                .where("id", GT, 1L)
+                .orderByDesc("firstName")
+                .limit(1)
+                .getResultList()
+                .stream().map(Person::getFirstName).collect(toList());
+        List<Person> all = session.createQuery(Person.class).where("id", GT, 0L).orderBy("id").getResultList();
+        session.close();
+
+        assertSame(ivan, petrov);
+        assertEquals(List.of("John"), names);
+        assertEquals(List.of(1L, 2L, 3L), all.stream().map(Person::getId).collect(toList()));
+        assertEquals(3, factory.getStatistics().getQueryPlanCacheMissCount());
+        assertEquals(0, factory.getStatistics().getQueryPlanCacheHitCount());
+        Session session2 = factory.createSession();
+        assertEquals(List.of("Bobrov"), session2.createQuery(Person.class).where("lastName", LIKE, "Bob%")
+                .getResultList().stream().map(Person::getLastName).collect(toList()));
+        assertNull(session2.createQuery(Person.class).where("lastName", EQ, "Unknown").getSingleResult());
+        assertThrows(IllegalArgumentException.class,
+                () -> session2.createQuery(Person.class).where("age", EQ, 1).getResultList());
+        session2.close();
+        assertEquals(1, factory.getStatistics().getQueryPlanCacheHitCount());
+        assertEquals(4, factory.getQueryPlanCache().size());
+    }
+
+    @Test
+    void createQuery_whenCacheableQueryRepeated_shouldUseCachedIdsUntilTableUpdateCommitted() {
+        SessionFactoryConfigs configs = SessionFactoryConfigs.builder()
+                .statisticsEnabled(true)
+                .queryCacheSize(16)
+                .build();
+        SessionFactory factory = new SessionFactory(spyDataSource, configs, Person.class);
+        Session session = factory.createSession();
+        assertEquals(3L, session.createQuery(Person.class).where("lastName", EQ, "Doe").cacheable()
+                .getSingleResult().getId());
+        session.close();
+
+        Session session2 = factory.createSession();
+        Person john = session2.createQuery(Person.class).where("lastName", EQ, "Doe").cacheable().getSingleResult();
+        assertEquals("John", john.getFirstName());
+        john.setLastName("Smith");
+        assertNull(session2.createQuery(Person.class).where("lastName", EQ, "Doe").cacheable().getSingleResult());
+        session2.close();
+
+        Session session3 = factory.createSession();
+        assertNull(session3.createQuery(Person.class).where("lastName", EQ, "Doe").cacheable().getSingleResult());
+        session3.close();
+        Statistics statistics = factory.getStatistics();
+        assertEquals(1, statistics.getQueryCacheHitCount());
+        assertEquals(2, statistics.getQueryCacheMissCount());
+        assertEquals(2, statistics.getQueryCachePutCount());
+    }
+
+    @Test
+    void associations_whenAccessed_shouldLoadReferencesAndListsOfSessionTogether() {
+        Session session = subject.createSession();
+        Person andrii = session.find(Person.class, 1L);
+        Person ivan = session.find(Person.class, 2L);
+        for (Person person : List.of(andrii, ivan, andrii)) {
+            Address address = new Address();
+            address.setAddressLine("Line");
+            address.setCity(person.getFirstName());
+            address.setPerson(person);
+            session.persist(address);
+        }
+        session.close();
+        SessionFactoryConfigs configs = SessionFactoryConfigs.builder().statisticsEnabled(true).build();
+        SessionFactory factory = new SessionFactory(spyDataSource, configs, Person.class, Address.class);
+        Statistics statistics = factory.getStatistics();
+
+        Session session2 = factory.createSession();
+        List<Person> persons = session2.findAll(Person.class, List.of(1L, 2L, 3L));
+        long statements = statistics.getStatementCount();
+        assertEquals(2, persons.get(0).getAddresses().size());
+        assertEquals(1, persons.get(1).getAddresses().size());
+        assertTrue(persons.get(2).getAddresses().isEmpty());
+        assertEquals(statements + 1, statistics.getStatementCount());
+        assertSame(persons.get(0), persons.get(0).getAddresses().get(1).getPerson());
+        session2.close();
+
+        Session session3 = factory.createSession();
+        statements = statistics.getStatementCount();
+        List<Address> addresses = session3.createQuery(Address.class).where("person", IS_NOT_NULL).orderBy("id")
+                .getResultList();
+        assertEquals("Andrii", addresses.get(0).getPerson().getFirstName());
+        assertSame(addresses.get(0).getPerson(), addresses.get(2).getPerson());
+        List<Person> fetched = session3.createQuery(Person.class).where("id", LE, 2L).fetch("addresses")
+                .getResultList();
+        assertEquals(statements + 4, statistics.getStatementCount());
+        assertEquals(List.of("Ivan"), fetched.get(1).getAddresses().stream().map(Address::getCity).collect(toList()));
+        Person john = session3.find(Person.class, 3L);
+        session3.close();
+        assertEquals(statements + 5, statistics.getStatementCount());
+        assertThrows(OrmException.class, () -> john.getAddresses().size());
+    }
+
+    @Test
+    void flush_whenVersionedRowChangedByAnotherTransaction_shouldThrowStaleStateException() throws SQLException {
+        Session session = subject.createSession();
+        Country ukraine = session.find(Country.class, 1L);
+        ukraine.setName("Ukraina");
+        session.flush();
+        Country created = new Country();
+        created.setName("Moldova");
+        session.persist(created);
+        session.close();
+        assertEquals(1L, ukraine.getVersion());
+        assertEquals(0L, created.getVersion());
+
+        Session session2 = subject.createSession();
+        Country poland = session2.find(Country.class, 2L);
+        bumpCountryVersion(session2, 2L);
+        poland.setName("Polska");
+        StaleStateException updateException = assertThrows(StaleStateException.class, session2::flush);
+        assertEquals(2L, updateException.getIdentifier());
+        assertThrows(StaleStateException.class, session2::close);
+
+        Session session3 = subject.createSession();
+        session3.delete(session3.find(Country.class, created.getId()));
+        bumpCountryVersion(session3, created.getId());
+        assertThrows(StaleStateException.class, session3::close);
+
+        Session session4 = subject.createSession();
+        assertEquals("Ukraina", session4.find(Country.class, 1L).getName());
+        assertEquals(1L, session4.find(Country.class, 1L).getVersion());
+        assertEquals("Poland", session4.find(Country.class, 2L).getName());
+        assertNotNull(session4.find(Country.class, created.getId()));
+        session4.close();
+    }
+
+    @Test
+    void stream_whenRowsMatch_shouldMapThemLazilyWithoutRegisteringAndCloseCursor() throws SQLException {
+        PreparedStatement[] cursor = new PreparedStatement[1];
+        doAnswer(invocation -> {
+            Connection connection = spy((Connection) invocation.callRealMethod());
+            doAnswer(prepare -> cursor[0] = spy((PreparedStatement) prepare.callRealMethod()))
+                    .when(connection).prepareStatement(anyString(), anyInt(), anyInt());
+            return connection;
+        }).when(spyDataSource).getConnection();
+        Session session = subject.createSession();
+        List<String> names;
+        try (Stream<Person> persons = session.stream(Person.class, "id > ? ORDER BY id", 1L)) {
+            names = persons.map(Person::getFirstName).collect(toList());
+            verify(cursor[0]).setFetchSize(subject.getConfigs().getStreamFetchSize());
+        }
+        assertEquals(List.of("Ivan", "John"), names);
+        assertTrue(session.getPersistenceContext().isEmpty());
+        assertTrue(session.getSnapshots().isEmpty());
+        verify(cursor[0], atLeastOnce()).close();
+        session.close();
+    }
+
+    @Test
+    void statelessSession_whenBulkWriting_shouldWriteThroughInBatchesWithoutManagingEntities() throws SQLException {
+        Map<String, PreparedStatement> statements = spyPreparedStatements();
+        SessionFactoryConfigs configs = SessionFactoryConfigs.builder().jdbcBatchSize(50).build();
+        SessionFactory factory = new SessionFactory(spyDataSource, configs, Person.class);
+        StatelessSession statelessSession = factory.openStatelessSession();
+        for (int i = 0; i < 120; i++) {
+            Person person = new Person();
+            person.setFirstName("Bulk " + i);
+            person.setLastName("Person");
+            statelessSession.insert(person);
+        }
+        Person person = statelessSession.get(Person.class, 1L);
+        assertNotSame(person, statelessSession.get(Person.class, 1L));
+        person.setLastName("Updated");
+        statelessSession.update(person);
+        statelessSession.delete(statelessSession.get(Person.class, 3L));
+        statelessSession.close();
+
+        EntityMetadata metadata = factory.getMetadataResolver().getEntityMetadata(Person.class);
+        PreparedStatement insert = statements.get(metadata.getInsertSql());
+        verify(insert, times(120)).addBatch();
+        verify(insert, times(3)).executeBatch();
+        for (String sql : List.of(metadata.getInsertSql(), metadata.getUpdateSql(), metadata.getDeleteSql())) {
+            verify(statements.get(sql), atLeastOnce()).executeBatch();
+            verify(statements.get(sql), never()).executeUpdate();
+        }
+
+        Session session = factory.createSession();
+        try (Stream<Person> persons = session.stream(Person.class, null)) {
+            assertEquals(122, persons.count());
+        }
+        assertEquals("Updated", session.find(Person.class, 1L).getLastName());
+        assertNull(session.find(Person.class, 3L));
+        session.close();
+    }
+
+    @Test
+    void persist_whenEntityHasEnumAndConvertedColumns_shouldBindAndReadThemThroughColumnTypes() throws SQLException {
+        Session session = subject.createSession();
+        Address address = new Address();
+        address.setAddressLine("Line");
+        address.setCity("Kyiv");
+        address.setType(Address.AddressType.WORK);
+        address.setVerified(true);
+        session.persist(address);
+        session.close();
+
+        try (var conn = spyDataSource.getConnection();
+             var stm = conn.createStatement();
+             var rs = stm.executeQuery("SELECT address_type, verified FROM address WHERE id = " + address.getId())) {
+            rs.next();
+            assertEquals("WORK", rs.getString(1));
+            assertEquals("Y", rs.getString(2));
+        }
+        Session session2 = subject.createSession();
+        Address found = session2.find(Address.class, address.getId());
+        assertEquals(Address.AddressType.WORK, found.getType());
+        assertTrue(found.getVerified());
+        session2.close();
+    }
+
+    @Test
+    void findAll_whenSomeEntitiesAlreadyManaged_shouldLoadOnlyMissingOnesInIdsOrder() {
+        Session session = subject.createSession();
+        Person managed = session.find(Person.class, 2L);
+        List<Person> persons = session.findAll(Person.class, List.of(3L, 2L, 42L, 1L));
+        assertEquals(List.of(3L, 2L, 1L), persons.stream().map(Person::getId).collect(toList()));
+        assertSame(managed, persons.get(1));
+        assertSame(persons.get(0), session.find(Person.class, 3L));
+        assertEquals(3, session.getSnapshots().size());
+        session.close();
+    }
+
+    @Test
+    void findAll_whenIdsOfAnotherNumberType_shouldReturnEntitiesOfConvertedIds() {
+        Session session = subject.createSession();
+        List<Person> persons = session.findAll(Person.class, List.of(1, 2));
+        assertEquals(List.of(1L, 2L), persons.stream().map(Person::getId).collect(toList()));
+        assertSame(persons.get(0), session.find(Person.class, 1));
+        session.close();
+    }
+
+    @Test
+    void findAll_whenMoreIdsThanLargestChunk_shouldLoadAllInPaddedChunks() {
+        Session session = subject.createSession();
+        session.setJdbcBatchSize(50);
+        for (int i = 0; i < 300; i++) {
+            Person person = new Person();
+            person.setFirstName("Bulk " + i);
+            person.setLastName("Person");
+            session.persist(person);
+        }
+        session.close();
+
+        Session session2 = subject.createSession();
+        List<Long> ids = LongStream.rangeClosed(1, 303).boxed().collect(toList());
+        List<Person> persons = session2.findAll(Person.class, ids);
+        assertEquals(303, persons.size());
+        assertEquals(303, session2.getPersistenceContext().size());
+        session2.close();
+    }
+
+    /**
+     * Spy the connections of {@link #spyDataSource} and the statements they prepare
+     *
+     * @return spied statements keyed by SQL, the last prepared one for each SQL
+     */
+    private Map<String, PreparedStatement> spyPreparedStatements() throws SQLException {
+        Map<String, PreparedStatement> statements = new HashMap<>();
+        doAnswer(invocation -> {
+            Connection connection = spy((Connection) invocation.callRealMethod());
+            doAnswer(prepare -> {
+                PreparedStatement stm = spy((PreparedStatement) prepare.callRealMethod());
+                statements.put(prepare.getArgument(0), stm);
+                return stm;
+            }).when(connection).prepareStatement(anyString());
+            return connection;
+        }).when(spyDataSource).getConnection();
+        return statements;
+    }
+
+    private void bumpCountryVersion(Session session, Long id) throws SQLException {
+        try (Statement stm = session.getConnection().createStatement()) {
+            stm.executeUpdate("UPDATE countries SET version = version + 1 WHERE id = " + id);
+        }
+    }
+
     private static void prepareDB(BreskulCPDataSource dataSource) throws Exception {
         try (var conn = dataSource.getConnection();
              var stm = conn.createStatement();
@@ -0,0 +1,16 @@
+package com.anderb.breskulorm;
+
+import com.anderb.breskulorm.convert.AttributeConverter;
+
+public class YesNoConverter implements AttributeConverter<Boolean, String> {
+
+    @Override
+    public String convertToDatabaseColumn(Boolean attribute) {
+        return attribute == null ? null : attribute ? "Y" : "N";
+    }
+
+    @Override
+    public Boolean convertToEntityAttribute(String dbData) {
+        return dbData == null ? null : dbData.equals("Y");
+    }
+}
@@ -0,0 +1,78 @@
+package com.anderb.breskulorm.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CacheRegionTest {
+
+    @Test
+    void getOrLoad_whenConcurrentMissesForSameId_shouldLoadOnce() throws Exception {
+        CacheRegion region = new CacheRegion(10, 0);
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<Object[]> first = executor.submit(() -> region.getOrLoad(1L, () -> {
+                loads.incrementAndGet();
+                loading.countDown();
+                await(release);
+                return new Object[]{"loaded"};
+            }));
+            loading.await();
+            Future<Object[]> second = executor.submit(() -> region.getOrLoad(1L, () -> {
+                loads.incrementAndGet();
+                return new Object[]{"loaded twice"};
+            }));
+            release.countDown();
+            assertEquals("loaded", first.get(5, TimeUnit.SECONDS)[0]);
+            assertEquals("loaded", second.get(5, TimeUnit.SECONDS)[0]);
+            assertEquals(1, loads.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void put_whenMaxEntriesExceeded_shouldEvictLeastRecentlyUsed() {
+        CacheRegion region = new CacheRegion(2, 0);
+        region.put(1L, new Object[]{"first"});
+        region.put(2L, new Object[]{"second"});
+        region.get(1L);
+        region.put(3L, new Object[]{"third"});
+        assertNotNull(region.get(1L));
+        assertNull(region.get(2L));
+        assertNotNull(region.get(3L));
+    }
+
+    @Test
+    void get_whenEntryOutlivedTimeToLive_shouldReturnNull() throws InterruptedException {
+        CacheRegion region = new CacheRegion(2, 1);
+        region.put(1L, new Object[]{"expiring"});
+        Thread.sleep(5);
+        assertNull(region.get(1L));
+        assertEquals(0, region.size());
+    }
+
+    @Test
+    void getOrLoad_whenRegionInvalidatedDuringLoad_shouldNotCacheLoadedState() {
+        CacheRegion region = new CacheRegion(10, 0);
+        region.getOrLoad(1L, () -> {
+            region.evict(1L);
+            return new Object[]{"stale"};
+        });
+        assertNull(region.get(1L));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
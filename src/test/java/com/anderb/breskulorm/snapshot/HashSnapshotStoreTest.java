@@ -0,0 +1,21 @@
+package com.anderb.breskulorm.snapshot;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HashSnapshotStoreTest {
+
+    @Test
+    void hash_whenColumnChangesToValueWithEqualHashCode_shouldDiffer() {
+        assertEquals(Long.hashCode(0L), Long.hashCode(0x100000001L));
+        assertNotEquals(HashSnapshotStore.hash(new Object[]{0L}), HashSnapshotStore.hash(new Object[]{0x100000001L}));
+        assertNotEquals(HashSnapshotStore.hash(new Object[]{"x", "Aa"}),
+                HashSnapshotStore.hash(new Object[]{"x", "BB"}));
+        assertNotEquals(HashSnapshotStore.hash(new Object[]{new BigDecimal("1.0")}),
+                HashSnapshotStore.hash(new Object[]{new BigDecimal("1.00")}));
+        assertEquals(HashSnapshotStore.hash(new Object[]{"x", null}), HashSnapshotStore.hash(new Object[]{"x", null}));
+    }
+}
@@ -18,5 +18,29 @@ CREATE TABLE ADDRESS (
     id BIGINT NOT NULL AUTO_INCREMENT,
     address_line VARCHAR(255) NOT NULL,
     city VARCHAR(255) NOT NULL,
+    address_type VARCHAR(20),
+    verified CHAR(1),
+    person_id BIGINT,
     PRIMARY KEY (id)
-);
\ No newline at end of file
+);
+DROP TABLE IF EXISTS COUNTRIES;
+CREATE TABLE COUNTRIES (
+    id BIGINT NOT NULL,
+    name VARCHAR(255) NOT NULL,
+    version BIGINT DEFAULT 0 NOT NULL,
+    PRIMARY KEY (id)
+);
+
+DROP SEQUENCE IF EXISTS country_sequence;
+CREATE SEQUENCE country_sequence start with 10 increment by 5;
+
+INSERT INTO countries(id, name) VALUES (1, 'Ukraine');
+INSERT INTO countries(id, name) VALUES (2, 'Poland');
+
+DROP TABLE IF EXISTS PARCELS;
+CREATE TABLE PARCELS (
+    id BIGINT NOT NULL,
+    label VARCHAR(255) NOT NULL,
+    address_id BIGINT NOT NULL,
+    PRIMARY KEY (id)
+);